@@ -0,0 +1,85 @@
+package crypto.bench;
+
+import crypto.Arithmetic;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link Arithmetic} utilities on operands of the given size: Karatsuba against
+ * BigInteger.multiply, division of a 2n-bit number by an n-bit one, and the extended Euclidean
+ * algorithm and modular inverse against their BigInteger counterparts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArithmeticBenchmark {
+
+    @Param({ "512", "1024", "2048", "4096" })
+    public int bits;
+
+    private BigInteger x;
+    private BigInteger y;
+    private BigInteger dividend;
+    private BigInteger modulus;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(bits);
+        x = new BigInteger(bits, random).setBit(bits - 1);
+        y = new BigInteger(bits, random).setBit(bits - 1);
+        dividend = x.multiply(y);
+        modulus = BigInteger.probablePrime(bits, random);
+    }
+
+    @Benchmark
+    public BigInteger karatsuba() {
+        return Arithmetic.karatsuba(x, y);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerMultiply() {
+        return x.multiply(y);
+    }
+
+    @Benchmark
+    public BigInteger[] computeDivision() {
+        return Arithmetic.computeDivision(dividend, y);
+    }
+
+    @Benchmark
+    public BigInteger[] bigIntegerDivideAndRemainder() {
+        return dividend.divideAndRemainder(y);
+    }
+
+    @Benchmark
+    public BigInteger[] extendedEuclid() {
+        return Arithmetic.ExtendedEuclid(x, y);
+    }
+
+    @Benchmark
+    public BigInteger computeModInverse() {
+        return Arithmetic.computeModInverse(x, modulus);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerModInverse() {
+        return x.modInverse(modulus);
+    }
+}
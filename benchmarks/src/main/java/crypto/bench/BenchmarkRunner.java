@@ -0,0 +1,75 @@
+package crypto.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks once per thread count, always with the GC profiler attached,
+ * so that every result comes with its allocation rate (gc.alloc.rate.norm is bytes per
+ * operation).
+ *
+ * Usage: {@code java -cp benchmarks.jar crypto.bench.BenchmarkRunner [threads] [jmh options]}
+ * where threads is a comma-separated list such as {@code 1,2,4} (default: 1 and the number of
+ * cores), and the remaining arguments are ordinary JMH options such as a benchmark regex or
+ * {@code -p bits=2048}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        int[] threadCounts = defaultThreadCounts();
+        String[] jmhArgs = args;
+        if (args.length > 0 && args[0].matches("\\d+(,\\d+)*")) {
+            String[] parts = args[0].split(",");
+            threadCounts = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                threadCounts[i] = Integer.parseInt(parts[i]);
+            }
+            jmhArgs = new String[args.length - 1];
+            System.arraycopy(args, 1, jmhArgs, 0, jmhArgs.length);
+        }
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs);
+
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class);
+            results.addAll(new Runner(options.build()).run());
+        }
+
+        System.out.println();
+        System.out.printf("%-60s %8s %14s %-8s %16s%n", "Benchmark", "Threads", "Score", "Units", "Alloc (B/op)");
+        for (RunResult result : results) {
+            print(result);
+        }
+    }
+
+    private static int[] defaultThreadCounts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return cores > 1 ? new int[] { 1, cores } : new int[] { 1 };
+    }
+
+    private static void print(RunResult result) {
+        BenchmarkParams params = result.getParams();
+        StringBuilder name = new StringBuilder(params.getBenchmark().replace("crypto.bench.", ""));
+        for (String key : params.getParamsKeys()) {
+            name.append(' ').append(key).append('=').append(params.getParam(key));
+        }
+        Result<?> primary = result.getPrimaryResult();
+        Result<?> allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+        System.out.printf("%-60s %8d %14.3f %-8s %16s%n", name, params.getThreads(), primary.getScore(),
+                primary.getScoreUnit(), allocation == null ? "-" : String.format("%.1f", allocation.getScore()));
+    }
+}
@@ -0,0 +1,78 @@
+package crypto.bench;
+
+import crypto.DHGroup;
+import crypto.DHParameterStore;
+import crypto.DiffieHelman;
+import crypto.FixedBaseExponentiator;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Diffie-Hellman operations in a group of the given size (a built-in RFC group
+ * where one exists): private key generation, public key computation (generic and with a
+ * fixed-base table), shared key computation and peer key validation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiffieHellmanBenchmark {
+
+    @Param({ "2048", "3072", "4096" })
+    public int bits;
+
+    private DHGroup group;
+    private FixedBaseExponentiator generator;
+    private BigInteger privateKey;
+    private BigInteger peerPublicKey;
+
+    @Setup
+    public void setup() {
+        group = new DHParameterStore().getOrGenerate(bits, 40);
+        generator = new FixedBaseExponentiator(group.getG(), group.getP(), group.getQ().bitLength());
+        privateKey = DiffieHelman.generatePrivateKey(group.getQ());
+        peerPublicKey = DiffieHelman.computePublicKey(group.getG(),
+                DiffieHelman.generatePrivateKey(group.getQ()), group.getP());
+    }
+
+    @Benchmark
+    public BigInteger generatePrivateKey() {
+        return DiffieHelman.generatePrivateKey(group.getQ());
+    }
+
+    @Benchmark
+    public BigInteger computePublicKey() {
+        return DiffieHelman.computePublicKey(group.getG(), privateKey, group.getP());
+    }
+
+    @Benchmark
+    public BigInteger computePublicKeyFixedBase() {
+        return DiffieHelman.computePublicKey(generator, privateKey);
+    }
+
+    @Benchmark
+    public BigInteger computeSharedKey() {
+        return DiffieHelman.computeSharedKey(peerPublicKey, privateKey, group.getP());
+    }
+
+    @Benchmark
+    public boolean isValidPublicKey() {
+        return DiffieHelman.isValidPublicKey(peerPublicKey, group.getP(), group.getQ());
+    }
+}
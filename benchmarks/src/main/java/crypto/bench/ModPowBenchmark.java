@@ -0,0 +1,59 @@
+package crypto.bench;
+
+import crypto.MontgomeryContext;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link BigInteger#modPow} against a reused {@link MontgomeryContext}
+ * for a full-size exponent at common modulus sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ModPowBenchmark {
+
+    @Param({ "512", "1024", "2048", "4096" })
+    public int bits;
+
+    private BigInteger modulus;
+    private BigInteger base;
+    private BigInteger exponent;
+    private MontgomeryContext context;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(bits);
+        modulus = new BigInteger(bits, random).setBit(bits - 1).setBit(0);
+        base = new BigInteger(bits - 1, random);
+        exponent = new BigInteger(bits, random);
+        context = new MontgomeryContext(modulus);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerModPow() {
+        return base.modPow(exponent, modulus);
+    }
+
+    @Benchmark
+    public BigInteger montgomeryModPow() {
+        return context.modPow(base, exponent);
+    }
+}
@@ -0,0 +1,79 @@
+package crypto.bench;
+
+import crypto.Arithmetic;
+import crypto.LimbMultiplier;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the multiplication tiers against BigInteger.multiply across operand sizes,
+ * to place the cutoffs in {@link LimbMultiplier}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MultiplyBenchmark {
+
+    /** Operand size in 32-bit limbs. */
+    @Param({ "16", "32", "64", "128", "256", "512", "1024", "2048", "4096", "8192" })
+    public int limbs;
+
+    private BigInteger x;
+    private BigInteger y;
+    private int[] xLimbs;
+    private int[] yLimbs;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(limbs);
+        x = new BigInteger(32 * limbs, random).setBit(32 * limbs - 1);
+        y = new BigInteger(32 * limbs, random).setBit(32 * limbs - 1);
+        xLimbs = toLimbs(x, limbs);
+        yLimbs = toLimbs(y, limbs);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerMultiply() {
+        return x.multiply(y);
+    }
+
+    @Benchmark
+    public int[] limbMultiply() {
+        return LimbMultiplier.multiply(xLimbs, yLimbs);
+    }
+
+    @Benchmark
+    public BigInteger parallelMultiply() {
+        return LimbMultiplier.multiply(x, y);
+    }
+
+    @Benchmark
+    public BigInteger arithmeticKaratsuba() {
+        return Arithmetic.karatsuba(x, y);
+    }
+
+    private static int[] toLimbs(BigInteger value, int n) {
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = value.shiftRight(32 * i).intValue();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,85 @@
+package crypto.bench;
+
+import crypto.Arithmetic;
+import crypto.MillerRabinTester;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of testing one prime candidate with k Miller-Rabin rounds, comparing the original
+ * round loop (repeated halving of n-1, squaring with modPow, n-1 recomputed on every
+ * comparison) against a {@link MillerRabinTester}. A prime is the worst case, as every
+ * round runs to the end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimalityBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    @Param({ "512", "1024", "2048", "4096" })
+    public int bits;
+
+    private BigInteger prime;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        prime = BigInteger.probablePrime(bits, new Random(bits));
+        random = new Random(42);
+    }
+
+    @Benchmark
+    public boolean original() {
+        BigInteger u = prime.subtract(BigInteger.ONE);
+        int r = 0;
+        while (u.mod(BigInteger.TWO).equals(BigInteger.ZERO)) {
+            u = Arithmetic.computeDivision(u, BigInteger.TWO)[0];
+            r++;
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            BigInteger a = Arithmetic.randomBetween(BigInteger.TWO, prime.subtract(BigInteger.ONE), random);
+            if (!originalRound(a, r, u, prime)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean tester() {
+        return new MillerRabinTester(prime).test(ROUNDS, random);
+    }
+
+    private static boolean originalRound(BigInteger a, int r, BigInteger u, BigInteger n) {
+        BigInteger x = a.modPow(u, n);
+        if (x.equals(BigInteger.ONE) || x.equals(n.subtract(BigInteger.ONE))) {
+            return true;
+        }
+        for (int i = 0; i < r - 1; i++) {
+            x = x.modPow(BigInteger.TWO, n);
+            if (x.equals(n.subtract(BigInteger.ONE))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+package crypto.bench;
+
+import crypto.MillerRabin;
+import crypto.PrimalityTest;
+import crypto.Primes;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures prime generation and testing: the plain and sieved searches, a full primality test
+ * of a prime (the worst case) with each strategy, and one Miller-Rabin round.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimesBenchmark {
+
+    private static final int ROUNDS = 40;
+
+    @Param({ "512", "1024", "2048" })
+    public int bits;
+
+    private BigInteger prime;
+    private BigInteger base;
+    private BigInteger u;
+    private int r;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(bits);
+        prime = BigInteger.probablePrime(bits, random);
+        base = new BigInteger(bits - 2, random).add(BigInteger.TWO);
+        BigInteger nMinusOne = prime.subtract(BigInteger.ONE);
+        r = nMinusOne.getLowestSetBit();
+        u = nMinusOne.shiftRight(r);
+    }
+
+    @Benchmark
+    public BigInteger samplePrime() {
+        return Primes.samplePrime(bits, ROUNDS);
+    }
+
+    @Benchmark
+    public BigInteger sampleSievedPrime() {
+        return Primes.sampleSievedPrime(bits, ROUNDS);
+    }
+
+    @Benchmark
+    public boolean isProbablePrime() {
+        return Primes.isProbablePrime(prime, ROUNDS);
+    }
+
+    @Benchmark
+    public boolean isProbablePrimeBailliePSW() {
+        return Primes.isProbablePrime(prime, ROUNDS, PrimalityTest.BAILLIE_PSW);
+    }
+
+    @Benchmark
+    public boolean millerRabinTest() {
+        return MillerRabin.millerRabinTest(base, r, u, prime);
+    }
+}
@@ -0,0 +1,71 @@
+package crypto.bench;
+
+import crypto.RSA;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures RSA key generation, encryption and CRT decryption for the given modulus size.
+ * Key generation is random by nature, so its score varies more than the others.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RSABenchmark {
+
+    @Param({ "1024", "2048", "3072", "4096" })
+    public int bits;
+
+    private BigInteger n;
+    private BigInteger e;
+    private BigInteger d;
+    private BigInteger p;
+    private BigInteger q;
+    private BigInteger message;
+    private BigInteger ciphertext;
+
+    @Setup
+    public void setup() {
+        BigInteger[] keys = RSA.generateRSAKeys(bits, 40);
+        n = keys[0];
+        e = keys[1];
+        d = keys[2];
+        p = keys[3];
+        q = keys[4];
+        message = new BigInteger(bits - 1, new Random(bits));
+        ciphertext = RSA.encryptRSA(message, e, n);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BigInteger[] generateRSAKeys() {
+        return RSA.generateRSAKeys(bits, 40);
+    }
+
+    @Benchmark
+    public BigInteger encryptRSA() {
+        return RSA.encryptRSA(message, e, n);
+    }
+
+    @Benchmark
+    public BigInteger CRTdecryptRSA() {
+        return RSA.CRTdecryptRSA(ciphertext, d, p, q);
+    }
+}
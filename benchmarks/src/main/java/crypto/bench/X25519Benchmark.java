@@ -0,0 +1,66 @@
+package crypto.bench;
+
+import crypto.DHGroup;
+import crypto.DHParameterStore;
+import crypto.DiffieHelman;
+import crypto.X25519;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares one X25519 key exchange step with finite-field Diffie-Hellman at about the same
+ * (128-bit) security level, the 3072-bit RFC 3526 group.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class X25519Benchmark {
+
+    private byte[] privateKey;
+    private byte[] peerPublicKey;
+
+    private DHGroup group;
+    private BigInteger dhPrivateKey;
+    private BigInteger dhPeerPublicKey;
+
+    @Setup
+    public void setup() {
+        privateKey = X25519.generatePrivateKey();
+        peerPublicKey = X25519.computePublicKey(X25519.generatePrivateKey());
+
+        group = new DHParameterStore().getOrGenerate(3072, 40);
+        dhPrivateKey = DiffieHelman.generatePrivateKey(group.getQ());
+        dhPeerPublicKey = DiffieHelman.computePublicKey(group.getG(),
+                DiffieHelman.generatePrivateKey(group.getQ()), group.getP());
+    }
+
+    @Benchmark
+    public byte[] x25519PublicKey() {
+        return X25519.computePublicKey(privateKey);
+    }
+
+    @Benchmark
+    public byte[] x25519SharedKey() {
+        return X25519.computeSharedKey(peerPublicKey, privateKey);
+    }
+
+    @Benchmark
+    public BigInteger dh3072SharedKey() {
+        return DiffieHelman.computeSharedKey(dhPeerPublicKey, dhPrivateKey, group.getP());
+    }
+}
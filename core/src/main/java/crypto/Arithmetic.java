@@ -0,0 +1,332 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+* A utility class providing various arithmetic operations for BigInteger values.
+* Includes implementations of Karatsuba multiplication, extended Euclidean algorithm,
+* modular arithmetic, and random number generation.
+*/
+public class Arithmetic {
+
+   /** Operand size in bits at or below which karatsuba uses regular multiplication. */
+   private static final int KARATSUBA_CUTOFF_BITS = 32 * LimbMultiplier.KARATSUBA_CUTOFF;
+
+   /** Operand size in bits at or below which ExtendedEuclid switches to the binary GCD on longs. */
+   private static final int SMALL_GCD_BITS = 56;
+   
+   /**
+    * Implements the Karatsuba algorithm for fast multiplication of large numbers.
+    * This is an efficient divide-and-conquer algorithm that reduces the number of 
+    * single-digit multiplications.
+    *
+    * @param x First BigInteger to multiply
+    * @param y Second BigInteger to multiply
+    * @return The product x * y
+    */
+   public static BigInteger karatsuba(BigInteger x, BigInteger y) {
+       // Base case: below the Karatsuba cutoff, use regular multiplication.
+       // The test is on the operand size; the split below only pays for large operands.
+       if (Math.min(x.bitLength(), y.bitLength()) <= KARATSUBA_CUTOFF_BITS) {
+           return x.multiply(y);
+       }
+
+       // Find the maximum bit length of the numbers
+       int n = Math.max(x.bitLength(), y.bitLength());
+
+       // Round up n/2 to handle odd lengths
+       n = n / 2 + n % 2;
+
+       // Split numbers into high and low parts:
+       // x = a + b*2^n
+       // y = c + d*2^n
+       BigInteger b = x.shiftRight(n);                    // b = high bits of x
+       BigInteger a = x.subtract(b.shiftLeft(n));         // a = low bits of x
+       BigInteger d = y.shiftRight(n);                    // d = high bits of y
+       BigInteger c = y.subtract(d.shiftLeft(n));         // c = low bits of y
+
+       // Recursively compute the three products needed
+       BigInteger A1 = karatsuba(a, c);      // ac
+       BigInteger A2 = karatsuba(b, d);      // bd
+       BigInteger A3 = karatsuba(a.add(b), c.add(d));  // (a+b)(c+d)
+
+       // Combine results using the Karatsuba formula:
+       // result = A1 + (A3 - A1 - A2)*2^n + A2*2^(2n)
+       return A2.shiftLeft(n * 2)
+               .add((A3.subtract(A1)).subtract(A2).shiftLeft(n))
+               .add(A1);
+   }
+   
+   /**
+    * Computes quotient and remainder for division, one machine word at a time.
+    * See {@link Division} for the algorithms used at each operand size.
+    *
+    * @param x Dividend (non-negative)
+    * @param y Divisor (positive)
+    * @return Array containing [quotient, remainder]
+    * @throws ArithmeticException if y is zero
+    * @throws IllegalArgumentException if x or y is negative
+    */
+   public static BigInteger[] computeDivision(BigInteger x, BigInteger y) {
+       return Division.divide(x, y);
+   }
+   
+   /**
+    * Implements the Extended Euclidean Algorithm.
+    * For given a and b, finds gcd(a,b) and coefficients x,y such that:
+    * ax + by = gcd(a,b)
+    *
+    * The algorithm is iterative. While the operands are larger than one machine word it uses
+    * Lehmer's method: runs of quotients are computed from the leading 61 bits in long
+    * arithmetic and applied to the full operands as a single 2x2 cofactor update. Once both
+    * operands fit in SMALL_GCD_BITS bits, the binary extended GCD on longs finishes the job
+    * with shifts and subtractions.
+    * Only the coefficient of a is tracked; the coefficient of b is recovered at the end.
+    *
+    * @param a First number
+    * @param b Second number
+    * @return Array containing [gcd, x, y]
+    */
+   public static BigInteger[] ExtendedEuclid(BigInteger a, BigInteger b) {
+       BigInteger absA = a.abs();
+       BigInteger absB = b.abs();
+
+       BigInteger gcd;
+       BigInteger x;   // coefficient of |a|
+       if (absB.signum() == 0) {
+           gcd = absA;
+           x = BigInteger.ONE;
+       } else if (absA.signum() == 0) {
+           gcd = absB;
+           x = BigInteger.ZERO;
+       } else {
+           BigInteger[] gx = lehmerGcd(absA, absB);
+           gcd = gx[0];
+           x = gx[1];
+       }
+
+       // y = (gcd - x*|a|) / |b|, exact by construction
+       BigInteger y = absB.signum() == 0
+               ? BigInteger.ZERO
+               : gcd.subtract(x.multiply(absA)).divide(absB);
+       if (a.signum() < 0) {
+           x = x.negate();
+       }
+       if (b.signum() < 0) {
+           y = y.negate();
+       }
+       return new BigInteger[] { gcd, x, y };
+   }
+
+   /**
+    * Lehmer's extended GCD for positive a and b.
+    *
+    * @return Array containing [gcd, s] with s*a ≡ gcd (mod b)
+    */
+   private static BigInteger[] lehmerGcd(BigInteger a, BigInteger b) {
+       // Invariants: u ≡ s0*a and v ≡ s1*a (mod b)
+       BigInteger u = a;
+       BigInteger v = b;
+       BigInteger s0 = BigInteger.ONE;
+       BigInteger s1 = BigInteger.ZERO;
+
+       while (v.bitLength() > SMALL_GCD_BITS) {
+           int shift = Math.max(u.bitLength(), v.bitLength()) - 61;
+           long uh = u.shiftRight(shift).longValue();
+           long vh = v.shiftRight(shift).longValue();
+
+           // Simulate Euclid on the leading words while both quotient bounds agree
+           long ca = 1, cb = 0, cc = 0, cd = 1;
+           while (vh + cc > 0 && vh + cd > 0) {
+               long q = (uh + ca) / (vh + cc);
+               if (q != (uh + cb) / (vh + cd)) {
+                   break;
+               }
+               long t = ca - q * cc; ca = cc; cc = t;
+               t = cb - q * cd; cb = cd; cd = t;
+               t = uh - q * vh; uh = vh; vh = t;
+           }
+
+           if (cb == 0) {
+               // No quotient could be determined from the leading words: one full division step
+               BigInteger[] qr = computeDivision(u, v);
+               u = v;
+               v = qr[1];
+               BigInteger t = s0.subtract(qr[0].multiply(s1));
+               s0 = s1;
+               s1 = t;
+           } else {
+               BigInteger newU = combine(ca, u, cb, v);
+               v = combine(cc, u, cd, v);
+               u = newU;
+               BigInteger newS0 = combine(ca, s0, cb, s1);
+               s1 = combine(cc, s0, cd, s1);
+               s0 = newS0;
+           }
+       }
+
+       if (v.signum() == 0) {
+           return new BigInteger[] { u, s0 };
+       }
+       if (u.bitLength() > SMALL_GCD_BITS) {
+           BigInteger[] qr = computeDivision(u, v);
+           u = v;
+           v = qr[1];
+           BigInteger t = s0.subtract(qr[0].multiply(s1));
+           s0 = s1;
+           s1 = t;
+           if (v.signum() == 0) {
+               return new BigInteger[] { u, s0 };
+           }
+       }
+
+       // Both operands are small: g = cu*u + cv*v, so the coefficient of a is cu*s0 + cv*s1
+       long[] small = binaryExtendedGcd(u.longValue(), v.longValue());
+       BigInteger s = combine(small[1], s0, small[2], s1);
+       return new BigInteger[] { BigInteger.valueOf(small[0]), s };
+   }
+
+   /**
+    * Computes p*x + q*y for word-sized cofactors p and q.
+    */
+   private static BigInteger combine(long p, BigInteger x, long q, BigInteger y) {
+       return x.multiply(BigInteger.valueOf(p)).add(y.multiply(BigInteger.valueOf(q)));
+   }
+
+   /**
+    * Binary extended GCD (HAC Algorithm 14.61) for positive x and y below 2^SMALL_GCD_BITS.
+    * The intermediate coefficients can exceed max(x, y) by a few bits, which the bound leaves room for.
+    *
+    * @return Array containing [g, a, b] with a*x + b*y = g
+    */
+   static long[] binaryExtendedGcd(long x, long y) {
+       int shift = Long.numberOfTrailingZeros(x | y);
+       x >>= shift;
+       y >>= shift;
+
+       long u = x, v = y;
+       long a = 1, b = 0, c = 0, d = 1;
+       while (true) {
+           while ((u & 1) == 0) {
+               u >>= 1;
+               if ((a & 1) == 0 && (b & 1) == 0) {
+                   a >>= 1;
+                   b >>= 1;
+               } else {
+                   a = (a + y) >> 1;
+                   b = (b - x) >> 1;
+               }
+           }
+           while ((v & 1) == 0) {
+               v >>= 1;
+               if ((c & 1) == 0 && (d & 1) == 0) {
+                   c >>= 1;
+                   d >>= 1;
+               } else {
+                   c = (c + y) >> 1;
+                   d = (d - x) >> 1;
+               }
+           }
+           if (u >= v) {
+               u -= v;
+               a -= c;
+               b -= d;
+           } else {
+               v -= u;
+               c -= a;
+               d -= b;
+           }
+           if (u == 0) {
+               return new long[] { v << shift, c, d };
+           }
+       }
+   }
+
+   /**
+    * Computes the modular multiplicative inverse using the Extended Euclidean Algorithm.
+    *
+    * @param a Number to find inverse for
+    * @param m Modulus
+    * @return The modular multiplicative inverse of a modulo m
+    * @throws ArithmeticException if the inverse doesn't exist
+    */
+   public static BigInteger computeModInverse(BigInteger a, BigInteger m) {
+       BigInteger[] result = ExtendedEuclid(a, m);
+       BigInteger gcd = result[0];
+       BigInteger x = result[1];
+
+       if (!gcd.equals(BigInteger.ONE)) {
+           throw new ArithmeticException("Modular inverse does not exist");
+       }
+
+       return x.mod(m);
+   }
+
+   /**
+    * Computes the modular inverses of many values modulo the same m with Montgomery's trick:
+    * one real inversion of the product of all values, plus three multiplications per value.
+    *
+    * @param values Numbers to find inverses for
+    * @param m Modulus
+    * @return Array whose i-th entry is the inverse of values[i] modulo m
+    * @throws ArithmeticException if any of the values has no inverse modulo m
+    */
+   public static BigInteger[] batchModInverse(BigInteger[] values, BigInteger m) {
+       int n = values.length;
+       BigInteger[] inverses = new BigInteger[n];
+       if (n == 0) {
+           return inverses;
+       }
+
+       // prefix[i] = values[0] * ... * values[i] mod m
+       BigInteger[] prefix = new BigInteger[n];
+       prefix[0] = values[0].mod(m);
+       for (int i = 1; i < n; i++) {
+           prefix[i] = prefix[i - 1].multiply(values[i]).mod(m);
+       }
+
+       // Fails exactly when some value shares a factor with m
+       BigInteger inverse = computeModInverse(prefix[n - 1], m);
+
+       // Walk back: inverse holds (values[0] * ... * values[i])^(-1) at step i
+       for (int i = n - 1; i > 0; i--) {
+           inverses[i] = inverse.multiply(prefix[i - 1]).mod(m);
+           inverse = inverse.multiply(values[i]).mod(m);
+       }
+       inverses[0] = inverse;
+       return inverses;
+   }
+
+   /**
+    * Generates a random BigInteger in the range [min, max).
+    *
+    * @param min Lower bound (inclusive)
+    * @param max Upper bound (exclusive)
+    * @param random Random number generator
+    * @return Random BigInteger in the specified range
+    */
+   public static BigInteger randomBetween(BigInteger min, BigInteger max, Random random) {
+       BigInteger range = max.subtract(min);
+       BigInteger result = new BigInteger(range.bitLength(), random);
+       while (result.compareTo(range) >= 0) {
+           result = new BigInteger(range.bitLength(), random);
+       }
+       return result.add(min);
+   }
+
+   /**
+    * Generates a random BigInteger less than the specified upper limit.
+    *
+    * @param upperLimit Upper bound (exclusive)
+    * @return Random BigInteger less than upperLimit
+    */
+   public static BigInteger getRandomBigInteger(BigInteger upperLimit) {
+       Random random = Randomness.keyMaterial();
+       BigInteger result;
+       do {
+           result = new BigInteger(upperLimit.bitLength(), random);
+       } while (result.compareTo(upperLimit) >= 0);
+       return result;
+   }
+}
\ No newline at end of file
@@ -0,0 +1,275 @@
+package crypto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A bounded stock of expensive values (primes, keypairs, ...) generated ahead of time on
+ * background threads.
+ *
+ * The pool fills up to its capacity, then its workers sleep until the stock drops to the
+ * low-water mark, at which point they refill it to capacity again. Consumers use the
+ * non-blocking {@link #poll()} or the blocking {@link #take(long, TimeUnit)}; either way a
+ * value that is already in stock is handed out without any generation work.
+ *
+ * Subclasses start the workers with {@link #start()} once construction has finished, typically
+ * from a static factory, so no worker can see a partly constructed pool. A generator that
+ * throws or returns null does not stop its worker: the failure is counted, kept for
+ * {@link #lastFailure()}, and the worker tries again after a short pause.
+ *
+ * @param <T> Type of the pooled values
+ */
+public abstract class BackgroundPool<T> implements AutoCloseable {
+
+    private final int capacity;
+    private final int lowWater;
+    private final Supplier<T> generator;
+    private final BlockingQueue<T> stock;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition refillNeeded = lock.newCondition();
+    private boolean refilling = true;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder generationNanos = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile Throwable lastFailure;
+
+    /** Pause after a failed generation, so a generator that always fails does not spin. */
+    private static final long FAILURE_BACKOFF_MILLIS = 100;
+
+    /**
+     * Creates the pool and its background workers. The workers run once {@link #start()} is called.
+     *
+     * @param name Name prefix for the worker threads
+     * @param generator Produces one new value per call; called concurrently from the workers
+     * @param capacity Maximum number of values kept in stock
+     * @param lowWater Stock level at or below which the workers refill the pool
+     * @param threads Number of background worker threads
+     * @throws IllegalArgumentException if capacity or threads is not positive,
+     *         or lowWater is not in [0, capacity)
+     */
+    protected BackgroundPool(String name, Supplier<T> generator, int capacity, int lowWater, int threads) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (lowWater < 0 || lowWater >= capacity) {
+            throw new IllegalArgumentException("Low-water mark must be in [0, capacity)");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.capacity = capacity;
+        this.lowWater = lowWater;
+        this.generator = generator;
+        this.stock = new LinkedBlockingQueue<>(capacity);
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::refillLoop, name + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Starts the background workers, which begin filling the pool immediately. Calls after the
+     * first have no effect.
+     */
+    protected final void start() {
+        if (started.compareAndSet(false, true)) {
+            for (Thread worker : workers) {
+                worker.start();
+            }
+        }
+    }
+
+    /**
+     * Takes a value from stock without blocking.
+     *
+     * @return A pre-generated value, or null if the pool is currently empty
+     */
+    public T poll() {
+        T value = stock.poll();
+        record(value);
+        return value;
+    }
+
+    /**
+     * Takes a value from stock, waiting up to the given time for the workers to produce one.
+     *
+     * @param timeout How long to wait before giving up
+     * @param unit Unit of the timeout
+     * @return A pre-generated value, or null if none became available in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T take(long timeout, TimeUnit unit) throws InterruptedException {
+        T value = stock.poll();
+        if (value == null) {
+            misses.increment();
+            value = stock.poll(timeout, unit);
+            if (value != null) {
+                afterRemoval();
+            }
+            return value;
+        }
+        record(value);
+        return value;
+    }
+
+    /** @return Number of values currently in stock */
+    public int size() {
+        return stock.size();
+    }
+
+    /** @return Maximum number of values kept in stock */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** @return Stock level at or below which the pool refills */
+    public int lowWaterMark() {
+        return lowWater;
+    }
+
+    /** @return Fraction of the capacity currently in stock, in [0, 1] */
+    public double fillLevel() {
+        return (double) stock.size() / capacity;
+    }
+
+    /** @return Total number of values generated since the pool was created */
+    public long generatedCount() {
+        return generated.sum();
+    }
+
+    /** @return Number of requests served straight from stock */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /** @return Number of requests that found the pool empty */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /** @return Number of generations that threw or returned null */
+    public long failureCount() {
+        return failures.sum();
+    }
+
+    /** @return The most recent generation failure, or null if there was none */
+    public Throwable lastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Rate at which the pool refills while its workers are busy: the per-worker generation
+     * rate multiplied by the number of workers.
+     *
+     * @return Values generated per second of refill time, or 0 if nothing was generated yet
+     */
+    public double refillRate() {
+        long nanos = generationNanos.sum();
+        if (nanos == 0) {
+            return 0.0;
+        }
+        return generated.sum() * 1e9 / nanos * workers.size();
+    }
+
+    /**
+     * Stops the background workers. Values still in stock remain available to {@link #poll()}.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void record(T value) {
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            afterRemoval();
+        }
+    }
+
+    /**
+     * Wakes the workers once the stock has dropped to the low-water mark.
+     */
+    private void afterRemoval() {
+        if (stock.size() <= lowWater) {
+            lock.lock();
+            try {
+                if (!refilling) {
+                    refilling = true;
+                    refillNeeded.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void refillLoop() {
+        try {
+            while (running) {
+                lock.lock();
+                try {
+                    while (running && !refilling) {
+                        refillNeeded.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!running) {
+                    return;
+                }
+
+                T value;
+                try {
+                    long start = System.nanoTime();
+                    value = generator.get();
+                    generationNanos.add(System.nanoTime() - start);
+                    if (value == null) {
+                        throw new IllegalStateException("Generator returned null");
+                    }
+                } catch (RuntimeException | Error ex) {
+                    failures.increment();
+                    lastFailure = ex;
+                    TimeUnit.MILLISECONDS.sleep(FAILURE_BACKOFF_MILLIS);
+                    continue;
+                }
+                generated.increment();
+                stock.put(value);
+
+                // Checked under the lock so a concurrent removal cannot miss the wake-up
+                lock.lock();
+                try {
+                    if (stock.remainingCapacity() == 0) {
+                        refilling = false;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException ex) {
+            // Pool closed
+        }
+    }
+}
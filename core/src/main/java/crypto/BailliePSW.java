@@ -0,0 +1,186 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Baillie-PSW probable prime test: a strong Fermat test to base 2 followed by a strong Lucas
+ * test with parameters chosen by Selfridge's method A.
+ *
+ * The two tests fail on very different sets of composites, and no composite is known that
+ * passes both. The test costs about as much as three Miller-Rabin rounds, no matter which
+ * certainty is wanted. Numbers below 2^64 are decided exactly by
+ * {@link DeterministicMillerRabin}.
+ */
+public class BailliePSW {
+
+    /** Small primes checked by trial division before any exponentiation. */
+    private static final int TRIAL_PRIMES = 64;
+
+    /**
+     * Tests if n is a Baillie-PSW probable prime.
+     *
+     * @param n The number to test for primality
+     * @return true if n is probably prime, false if n is definitely composite
+     */
+    public static boolean isProbablePrime(BigInteger n) {
+        if (n.signum() <= 0) {
+            return false;
+        }
+        if (n.bitLength() <= 64) {
+            return DeterministicMillerRabin.isPrime(n.longValue());
+        }
+        if (!n.testBit(0)) {
+            return false;
+        }
+        for (int i = 0; i < TRIAL_PRIMES; i++) {
+            if (n.mod(BigInteger.valueOf(Primes.SMALL_PRIMES[i])).signum() == 0) {
+                return false;
+            }
+        }
+        if (!new MillerRabinTester(n).test(BigInteger.TWO)) {
+            return false;
+        }
+        return strongLucasTest(n);
+    }
+
+    /**
+     * Strong Lucas probable prime test with P = 1 and Q = (1 - D) / 4, where D is the first of
+     * 5, -7, 9, -11, ... with Jacobi symbol (D/n) = -1.
+     *
+     * @param n The number to test (odd, greater than 2^64)
+     * @return true if n is a strong Lucas probable prime
+     */
+    static boolean strongLucasTest(BigInteger n) {
+        // A perfect square has no D with (D/n) = -1
+        BigInteger root = n.sqrt();
+        if (root.multiply(root).equals(n)) {
+            return false;
+        }
+
+        long d = 5;
+        while (true) {
+            int j = jacobi(d, n);
+            if (j == -1) {
+                break;
+            }
+            if (j == 0) {
+                // D shares a factor with n, and n is far larger than |D|
+                return false;
+            }
+            d = d > 0 ? -(d + 2) : -d + 2;
+        }
+        MontgomeryContext ctx = new MontgomeryContext(n);
+        long[] q = ctx.newElement();
+        ctx.toMontgomery(BigInteger.valueOf((1 - d) / 4), q);
+
+        // n + 1 = k * 2^s with k odd
+        BigInteger nPlusOne = n.add(BigInteger.ONE);
+        int s = nPlusOne.getLowestSetBit();
+        BigInteger k = nPlusOne.shiftRight(s);
+
+        // Walk (V_m, V_m+1, Q^m) from m = 1 up to m = k with P = 1, using the doubling rules
+        //   V_2m = V_m^2 - 2 Q^m,  V_2m+1 = V_m V_m+1 - Q^m,  V_2m+2 = V_m+1^2 - 2 Q^m+1
+        long[] v = ctx.newElement();
+        long[] w = ctx.newElement();
+        long[] qm = q.clone();
+        long[] qNext = ctx.newElement();
+        long[] t = ctx.newElement();
+        ctx.setOne(v);                     // V_1 = P = 1
+        ctx.add(q, q, t);
+        ctx.subtract(v, t, w);             // V_2 = P^2 - 2Q
+        for (int i = k.bitLength() - 2; i >= 0; i--) {
+            if (k.testBit(i)) {
+                // m -> 2m + 1
+                ctx.multiply(v, w, v);
+                ctx.subtract(v, qm, v);
+                ctx.multiply(qm, q, qNext);
+                ctx.square(w, w);
+                ctx.add(qNext, qNext, t);
+                ctx.subtract(w, t, w);
+                ctx.multiply(qm, qNext, qm);
+            } else {
+                // m -> 2m
+                ctx.multiply(v, w, w);
+                ctx.subtract(w, qm, w);
+                ctx.square(v, v);
+                ctx.add(qm, qm, t);
+                ctx.subtract(v, t, v);
+                ctx.square(qm, qm);
+            }
+        }
+
+        // U_k = (2 V_k+1 - P V_k) / D, and D is invertible mod n
+        long[] zero = ctx.newElement();
+        ctx.add(w, w, t);
+        if (Arrays.equals(t, v) || Arrays.equals(v, zero)) {
+            return true;
+        }
+        // V_(k 2^r) for r = 1 .. s-1
+        for (int r = 1; r < s; r++) {
+            ctx.square(v, v);
+            ctx.add(qm, qm, t);
+            ctx.subtract(v, t, v);
+            if (Arrays.equals(v, zero)) {
+                return true;
+            }
+            ctx.square(qm, qm);
+        }
+        return false;
+    }
+
+    /**
+     * Jacobi symbol (a/n) for a small non-zero a and odd n > |a|.
+     */
+    static int jacobi(long a, BigInteger n) {
+        int result = 1;
+        int n8 = n.intValue() & 7;
+        if (a < 0) {
+            a = -a;
+            // (-1/n) = -1 exactly when n ≡ 3 (mod 4)
+            if ((n8 & 3) == 3) {
+                result = -result;
+            }
+        }
+        while ((a & 1) == 0) {
+            a >>= 1;
+            // (2/n) = -1 exactly when n ≡ 3, 5 (mod 8)
+            if (n8 == 3 || n8 == 5) {
+                result = -result;
+            }
+        }
+        if (a == 1) {
+            return result;
+        }
+        // Quadratic reciprocity, then continue on small numbers
+        if ((a & 3) == 3 && (n8 & 3) == 3) {
+            result = -result;
+        }
+        return result * jacobi(n.mod(BigInteger.valueOf(a)).longValue(), a);
+    }
+
+    /**
+     * Jacobi symbol (a/n) for a ≥ 0 and odd n > 0.
+     */
+    private static int jacobi(long a, long n) {
+        int result = 1;
+        a %= n;
+        while (a != 0) {
+            while ((a & 1) == 0) {
+                a >>= 1;
+                long r = n & 7;
+                if (r == 3 || r == 5) {
+                    result = -result;
+                }
+            }
+            long t = a;
+            a = n;
+            n = t;
+            if ((a & 3) == 3 && (n & 3) == 3) {
+                result = -result;
+            }
+            a %= n;
+        }
+        return n == 1 ? result : 0;
+    }
+}
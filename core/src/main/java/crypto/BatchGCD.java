@@ -0,0 +1,360 @@
+package crypto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Finds RSA moduli that share a prime factor with another modulus in the set, with
+ * Bernstein's batch GCD instead of n^2 pairwise GCDs.
+ *
+ * The product tree multiplies the moduli in pairs, level by level, up to the product P of
+ * all of them. The remainder tree then walks back down, reducing P modulo the square of
+ * every node, so that leaf i ends with z_i = P mod N_i^2. Then gcd(z_i / N_i, N_i) is the
+ * product of the primes N_i shares with the other moduli: 1 for a healthy modulus.
+ *
+ * The nodes of one level are computed in parallel on a fork-join pool, and the few huge
+ * products near the root go through {@link LimbMultiplier}, which parallelises inside a
+ * single product. Every product-tree level holds about as many bits as the input, so the
+ * tree is about log2(n) times the input's size. Levels that would push the tree past the
+ * memory budget are written to a spill directory and read back when the remainder tree
+ * reaches them.
+ */
+public class BatchGCD {
+
+    /** Ranges per worker in {@link #forEach}, so that uneven nodes even out. */
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final long memoryBudget;
+    private final Path spillDirectory;
+
+    /**
+     * A modulus that shares a factor with at least one other modulus in the batch.
+     */
+    public static final class Finding {
+
+        private final int index;
+        private final BigInteger modulus;
+        private final BigInteger divisor;
+
+        Finding(int index, BigInteger modulus, BigInteger divisor) {
+            this.index = index;
+            this.modulus = modulus;
+            this.divisor = divisor;
+        }
+
+        /** @return Position of the modulus in the input */
+        public int getIndex() {
+            return index;
+        }
+
+        /** @return The weak modulus */
+        public BigInteger getModulus() {
+            return modulus;
+        }
+
+        /**
+         * @return A non-trivial divisor shared with another modulus, or the modulus itself if
+         *         it appears more than once in the input
+         */
+        public BigInteger getDivisor() {
+            return divisor;
+        }
+
+        /** @return Whether the divisor factors the modulus, i.e. the private key is exposed */
+        public boolean isFactored() {
+            return !divisor.equals(modulus);
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + (isFactored() ? " divisor " + divisor.toString(16) : " duplicate modulus");
+        }
+    }
+
+    /**
+     * Creates an audit with the common pool, a quarter of the maximum heap as memory
+     * budget, and spill files in the temporary directory.
+     */
+    public BatchGCD() {
+        this(ForkJoinPool.commonPool(), Runtime.getRuntime().maxMemory() / 4,
+                Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param pool Pool that runs the tree levels
+     * @param memoryBudget Bytes of product-tree levels kept in memory before levels are spilled
+     * @param spillDirectory Existing directory for spilled levels
+     * @throws IllegalArgumentException if memoryBudget is negative
+     */
+    public BatchGCD(ForkJoinPool pool, long memoryBudget, Path spillDirectory) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget must be non-negative");
+        }
+        this.pool = pool;
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Finds every modulus that shares a factor with another modulus in the list.
+     *
+     * @param moduli The moduli to audit (each greater than 1)
+     * @return One finding per weak modulus, in input order
+     * @throws IOException if a level cannot be spilled or read back
+     * @throws IllegalArgumentException if a modulus is not greater than 1
+     */
+    public List<Finding> audit(List<BigInteger> moduli) throws IOException {
+        BigInteger[] leaves = moduli.toArray(new BigInteger[0]);
+        for (BigInteger n : leaves) {
+            if (n.compareTo(BigInteger.ONE) <= 0) {
+                throw new IllegalArgumentException("Moduli must be greater than 1");
+            }
+        }
+        if (leaves.length < 2) {
+            return new ArrayList<>();
+        }
+
+        // Product tree: levels.get(0) are the moduli, the last level is the single root
+        List<Level> levels = new ArrayList<>();
+        levels.add(new Level(leaves));
+        long inMemory = 0;
+        try {
+            BigInteger[] current = leaves;
+            while (current.length > 1) {
+                BigInteger[] next = productLevel(current);
+                Level level = new Level(next);
+                long bytes = sizeOf(next);
+                if (next.length > 1 && inMemory + bytes > memoryBudget) {
+                    level.spill(spillDirectory);
+                } else {
+                    inMemory += bytes;
+                }
+                levels.add(level);
+                current = next;
+            }
+
+            // Remainder tree: walk down, reducing each parent remainder modulo the node squared
+            BigInteger[] remainders = levels.get(levels.size() - 1).values();
+            for (int i = levels.size() - 2; i >= 0; i--) {
+                remainders = remainderLevel(remainders, levels.get(i).values());
+            }
+            return findings(leaves, remainders);
+        } finally {
+            for (Level level : levels) {
+                level.delete();
+            }
+        }
+    }
+
+    /**
+     * Multiplies neighbouring nodes; an odd last node moves up unchanged.
+     */
+    private BigInteger[] productLevel(BigInteger[] nodes) {
+        BigInteger[] next = new BigInteger[(nodes.length + 1) / 2];
+        forEach(next.length, j -> next[j] = 2 * j + 1 < nodes.length
+                ? LimbMultiplier.multiply(nodes[2 * j], nodes[2 * j + 1], pool)
+                : nodes[2 * j]);
+        return next;
+    }
+
+    /**
+     * Reduces the parent remainders modulo the squares of the child nodes.
+     */
+    private BigInteger[] remainderLevel(BigInteger[] parents, BigInteger[] nodes) {
+        BigInteger[] remainders = new BigInteger[nodes.length];
+        forEach(nodes.length, j -> remainders[j] = parents[j / 2].mod(LimbMultiplier.multiply(nodes[j], nodes[j], pool)));
+        return remainders;
+    }
+
+    private List<Finding> findings(BigInteger[] moduli, BigInteger[] remainders) {
+        BigInteger[] divisors = new BigInteger[moduli.length];
+        forEach(moduli.length, i -> divisors[i] = remainders[i].divide(moduli[i]).gcd(moduli[i]));
+
+        List<Finding> found = new ArrayList<>();
+        for (int i = 0; i < moduli.length; i++) {
+            if (!divisors[i].equals(BigInteger.ONE)) {
+                found.add(new Finding(i, moduli[i], divisors[i]));
+            }
+        }
+        // A modulus sharing both of its primes gets gcd = N; pairwise GCDs among the
+        // (few) weak moduli split it unless it is an exact duplicate
+        for (int i = 0; i < found.size(); i++) {
+            Finding finding = found.get(i);
+            if (finding.isFactored()) {
+                continue;
+            }
+            for (Finding other : found) {
+                BigInteger g = finding.modulus.gcd(other.modulus);
+                if (!g.equals(BigInteger.ONE) && !g.equals(finding.modulus)) {
+                    found.set(i, new Finding(finding.index, finding.modulus, g));
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Runs action for 0..count-1 on the pool, splitting the range in halves down to about
+     * RANGES_PER_WORKER ranges per worker, each of which runs sequentially. Levels with only a
+     * few huge nodes still split down to one node per task.
+     */
+    private void forEach(int count, IntConsumer action) {
+        int grain = Math.max(1, count / (RANGES_PER_WORKER * pool.getParallelism()));
+        pool.invoke(new RangeTask(0, count, grain, action));
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, int grain, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, action), new RangeTask(mid, to, grain, action));
+        }
+    }
+
+    private static long sizeOf(BigInteger[] values) {
+        long bytes = 0;
+        for (BigInteger v : values) {
+            bytes += v.bitLength() / 8 + 32;
+        }
+        return bytes;
+    }
+
+    /**
+     * One product-tree level, either in memory or spilled to a file.
+     */
+    private static final class Level {
+
+        private BigInteger[] values;
+        private Path file;
+
+        Level(BigInteger[] values) {
+            this.values = values;
+        }
+
+        void spill(Path directory) throws IOException {
+            file = Files.createTempFile(directory, "batchgcd-", ".level");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+                out.writeInt(values.length);
+                for (BigInteger v : values) {
+                    byte[] bytes = v.toByteArray();
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            values = null;
+        }
+
+        /** @return The values, read back from the spill file if the level was spilled */
+        BigInteger[] values() throws IOException {
+            if (values != null) {
+                return values;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                BigInteger[] read = new BigInteger[in.readInt()];
+                for (int i = 0; i < read.length; i++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    read[i] = new BigInteger(bytes);
+                }
+                return read;
+            }
+        }
+
+        void delete() throws IOException {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Reads moduli from a text file, one per line, in decimal or with a 0x prefix in hex.
+     * Blank lines and lines starting with # are skipped.
+     *
+     * @param file The file to read
+     * @return The moduli, in file order
+     * @throws IOException if the file cannot be read
+     * @throws NumberFormatException if a line is not a number
+     */
+    public static List<BigInteger> readModuli(Path file) throws IOException {
+        List<BigInteger> moduli = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith("0x") || line.startsWith("0X")) {
+                    moduli.add(new BigInteger(line.substring(2), 16));
+                } else {
+                    moduli.add(new BigInteger(line));
+                }
+            }
+        }
+        return moduli;
+    }
+
+    /**
+     * Audits a file of moduli and prints every weak modulus.
+     * Usage: BatchGCD moduli-file [threads] [memory-budget-MB] [spill-directory]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BatchGCD moduli-file [threads] [memory-budget-MB] [spill-directory]");
+            System.exit(2);
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long budget = args.length > 2 ? Long.parseLong(args[2]) << 20 : Runtime.getRuntime().maxMemory() / 4;
+        Path spill = args.length > 3 ? Path.of(args[3]) : Path.of(System.getProperty("java.io.tmpdir"));
+
+        List<BigInteger> moduli = readModuli(Path.of(args[0]));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Finding> found = new BatchGCD(pool, budget, spill).audit(moduli);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            for (Finding finding : found) {
+                System.out.println(finding);
+            }
+            System.out.println(moduli.size() + " moduli, " + found.size() + " weak, " + millis + " ms");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
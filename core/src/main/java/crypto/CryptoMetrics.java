@@ -0,0 +1,182 @@
+package crypto;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide metrics for the hot paths: striped counters for the prime search and key
+ * generation, latency histograms for the main operations, and JFR events for key generation
+ * and primality tests.
+ *
+ * Metrics are off by default, or on when the system property {@code crypto.metrics} is true,
+ * and can be switched at any time with {@link #setEnabled(boolean)}. While off, every hook
+ * costs one volatile read: no clock reads, no counter updates and no event objects.
+ */
+public class CryptoMetrics {
+
+    /** Event counts. */
+    public enum Counter {
+        /** Prime candidates examined, including those the sieve rejected. */
+        CANDIDATES,
+        /** Candidates rejected by trial division against the small-prime sieve. */
+        SIEVE_REJECTIONS,
+        /** Miller-Rabin rounds run (with random bases, or base 2 inside Baillie-PSW). */
+        MILLER_RABIN_ROUNDS,
+        /** Completed key generations (RSA key pairs and DH groups). */
+        KEY_GENERATIONS
+    }
+
+    /** Operations whose latency is recorded. */
+    public enum Operation {
+        KEY_GENERATION,
+        ENCRYPT,
+        DECRYPT,
+        SHARED_KEY
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("crypto.metrics");
+
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Operation.values().length];
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Switches metrics collection on or off.
+     *
+     * @param on true to collect metrics
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** @return true if metrics are being collected */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds one to a counter, if metrics are enabled.
+     *
+     * @param counter The counter
+     */
+    public static void increment(Counter counter) {
+        if (enabled) {
+            COUNTERS[counter.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Adds to a counter, if metrics are enabled.
+     *
+     * @param counter The counter
+     * @param amount The amount to add
+     */
+    public static void add(Counter counter, long amount) {
+        if (enabled && amount != 0) {
+            COUNTERS[counter.ordinal()].add(amount);
+        }
+    }
+
+    /**
+     * @param counter The counter
+     * @return The current value of the counter
+     */
+    public static long count(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    /**
+     * @param operation The operation
+     * @return The latency histogram of the operation, in nanoseconds
+     */
+    public static LatencyHistogram histogram(Operation operation) {
+        return HISTOGRAMS[operation.ordinal()];
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return The start time to pass to {@link #stop}, or 0 if metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the latency of an operation started with {@link #start()}.
+     *
+     * @param operation The operation
+     * @param start The value returned by {@link #start()}
+     */
+    public static void stop(Operation operation, long start) {
+        if (start != 0) {
+            HISTOGRAMS[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts a key generation: begins its JFR event and its timer.
+     *
+     * @return The event to pass to {@link #endKeyGeneration}, or null if metrics are disabled
+     */
+    static KeyGenerationEvent beginKeyGeneration() {
+        if (!enabled) {
+            return null;
+        }
+        KeyGenerationEvent event = new KeyGenerationEvent();
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends a key generation started with {@link #beginKeyGeneration()}: counts it, records its
+     * latency and commits its JFR event.
+     */
+    static void endKeyGeneration(KeyGenerationEvent event, String algorithm, int bitLength) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        COUNTERS[Counter.KEY_GENERATIONS.ordinal()].increment();
+        HISTOGRAMS[Operation.KEY_GENERATION.ordinal()].record(System.nanoTime() - event.startNanos);
+        if (event.shouldCommit()) {
+            event.algorithm = algorithm;
+            event.bitLength = bitLength;
+            event.commit();
+        }
+    }
+
+    /**
+     * Clears all counters and histograms.
+     */
+    public static void reset() {
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @return A multi-line summary of all counters and histograms
+     */
+    public static String report() {
+        StringBuilder out = new StringBuilder();
+        for (Counter counter : Counter.values()) {
+            out.append(counter).append(": ").append(count(counter)).append('\n');
+        }
+        for (Operation operation : Operation.values()) {
+            out.append(operation).append(": ").append(histogram(operation)).append('\n');
+        }
+        return out.toString();
+    }
+}
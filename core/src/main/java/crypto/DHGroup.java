@@ -0,0 +1,242 @@
+package crypto;
+
+import java.math.BigInteger;
+
+/**
+ * An immutable Diffie-Hellman group: a safe prime p = 2q + 1 and a generator g.
+ *
+ * The RFC 3526 MODP groups and the RFC 7919 ffdhe groups are built in. Their primes are
+ * p = 2^n - 2^(n-64) - 1 + 2^64 * (floor(2^(n-130) * c) + k), with c = π for RFC 3526 and
+ * c = e for RFC 7919, and every one of them uses g = 2, which generates the subgroup of order q.
+ * Groups from {@link #generate(int, int)} use the square of {@link DiffieHelman#findGenerator},
+ * which generates that subgroup too. Every group therefore keeps private keys in the order-q
+ * subgroup and agrees with {@link DiffieHelman#isValidPublicKey}.
+ */
+public final class DHGroup {
+
+    /** The 1536-bit MODP group 5 from RFC 3526. */
+    public static final DHGroup MODP_1536 = builtIn("modp1536",
+              "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD129024E088A67CC74"
+            + "020BBEA63B139B22514A08798E3404DDEF9519B3CD3A431B302B0A6DF25F1437"
+            + "4FE1356D6D51C245E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED"
+            + "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3DC2007CB8A163BF05"
+            + "98DA48361C55D39A69163FA8FD24CF5F83655D23DCA3AD961C62F356208552BB"
+            + "9ED529077096966D670C354E4ABC9804F1746C08CA237327FFFFFFFFFFFFFFFF");
+
+    /** The 2048-bit MODP group 14 from RFC 3526. */
+    public static final DHGroup MODP_2048 = builtIn("modp2048",
+              "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD129024E088A67CC74"
+            + "020BBEA63B139B22514A08798E3404DDEF9519B3CD3A431B302B0A6DF25F1437"
+            + "4FE1356D6D51C245E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED"
+            + "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3DC2007CB8A163BF05"
+            + "98DA48361C55D39A69163FA8FD24CF5F83655D23DCA3AD961C62F356208552BB"
+            + "9ED529077096966D670C354E4ABC9804F1746C08CA18217C32905E462E36CE3B"
+            + "E39E772C180E86039B2783A2EC07A28FB5C55DF06F4C52C9DE2BCBF695581718"
+            + "3995497CEA956AE515D2261898FA051015728E5A8AACAA68FFFFFFFFFFFFFFFF");
+
+    /** The 3072-bit MODP group 15 from RFC 3526. */
+    public static final DHGroup MODP_3072 = builtIn("modp3072",
+              "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD129024E088A67CC74"
+            + "020BBEA63B139B22514A08798E3404DDEF9519B3CD3A431B302B0A6DF25F1437"
+            + "4FE1356D6D51C245E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED"
+            + "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3DC2007CB8A163BF05"
+            + "98DA48361C55D39A69163FA8FD24CF5F83655D23DCA3AD961C62F356208552BB"
+            + "9ED529077096966D670C354E4ABC9804F1746C08CA18217C32905E462E36CE3B"
+            + "E39E772C180E86039B2783A2EC07A28FB5C55DF06F4C52C9DE2BCBF695581718"
+            + "3995497CEA956AE515D2261898FA051015728E5A8AAAC42DAD33170D04507A33"
+            + "A85521ABDF1CBA64ECFB850458DBEF0A8AEA71575D060C7DB3970F85A6E1E4C7"
+            + "ABF5AE8CDB0933D71E8C94E04A25619DCEE3D2261AD2EE6BF12FFA06D98A0864"
+            + "D87602733EC86A64521F2B18177B200CBBE117577A615D6C770988C0BAD946E2"
+            + "08E24FA074E5AB3143DB5BFCE0FD108E4B82D120A93AD2CAFFFFFFFFFFFFFFFF");
+
+    /** The 4096-bit MODP group 16 from RFC 3526. */
+    public static final DHGroup MODP_4096 = builtIn("modp4096",
+              "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD129024E088A67CC74"
+            + "020BBEA63B139B22514A08798E3404DDEF9519B3CD3A431B302B0A6DF25F1437"
+            + "4FE1356D6D51C245E485B576625E7EC6F44C42E9A637ED6B0BFF5CB6F406B7ED"
+            + "EE386BFB5A899FA5AE9F24117C4B1FE649286651ECE45B3DC2007CB8A163BF05"
+            + "98DA48361C55D39A69163FA8FD24CF5F83655D23DCA3AD961C62F356208552BB"
+            + "9ED529077096966D670C354E4ABC9804F1746C08CA18217C32905E462E36CE3B"
+            + "E39E772C180E86039B2783A2EC07A28FB5C55DF06F4C52C9DE2BCBF695581718"
+            + "3995497CEA956AE515D2261898FA051015728E5A8AAAC42DAD33170D04507A33"
+            + "A85521ABDF1CBA64ECFB850458DBEF0A8AEA71575D060C7DB3970F85A6E1E4C7"
+            + "ABF5AE8CDB0933D71E8C94E04A25619DCEE3D2261AD2EE6BF12FFA06D98A0864"
+            + "D87602733EC86A64521F2B18177B200CBBE117577A615D6C770988C0BAD946E2"
+            + "08E24FA074E5AB3143DB5BFCE0FD108E4B82D120A92108011A723C12A787E6D7"
+            + "88719A10BDBA5B2699C327186AF4E23C1A946834B6150BDA2583E9CA2AD44CE8"
+            + "DBBBC2DB04DE8EF92E8EFC141FBECAA6287C59474E6BC05D99B2964FA090C3A2"
+            + "233BA186515BE7ED1F612970CEE2D7AFB81BDD762170481CD0069127D5B05AA9"
+            + "93B4EA988D8FDDC186FFB7DC90A6C08F4DF435C934063199FFFFFFFFFFFFFFFF");
+
+    /** The ffdhe2048 from RFC 7919. */
+    public static final DHGroup FFDHE_2048 = builtIn("ffdhe2048",
+              "FFFFFFFFFFFFFFFFADF85458A2BB4A9AAFDC5620273D3CF1D8B9C583CE2D3695"
+            + "A9E13641146433FBCC939DCE249B3EF97D2FE363630C75D8F681B202AEC4617A"
+            + "D3DF1ED5D5FD65612433F51F5F066ED0856365553DED1AF3B557135E7F57C935"
+            + "984F0C70E0E68B77E2A689DAF3EFE8721DF158A136ADE73530ACCA4F483A797A"
+            + "BC0AB182B324FB61D108A94BB2C8E3FBB96ADAB760D7F4681D4F42A3DE394DF4"
+            + "AE56EDE76372BB190B07A7C8EE0A6D709E02FCE1CDF7E2ECC03404CD28342F61"
+            + "9172FE9CE98583FF8E4F1232EEF28183C3FE3B1B4C6FAD733BB5FCBC2EC22005"
+            + "C58EF1837D1683B2C6F34A26C1B2EFFA886B423861285C97FFFFFFFFFFFFFFFF");
+
+    /** The ffdhe3072 from RFC 7919. */
+    public static final DHGroup FFDHE_3072 = builtIn("ffdhe3072",
+              "FFFFFFFFFFFFFFFFADF85458A2BB4A9AAFDC5620273D3CF1D8B9C583CE2D3695"
+            + "A9E13641146433FBCC939DCE249B3EF97D2FE363630C75D8F681B202AEC4617A"
+            + "D3DF1ED5D5FD65612433F51F5F066ED0856365553DED1AF3B557135E7F57C935"
+            + "984F0C70E0E68B77E2A689DAF3EFE8721DF158A136ADE73530ACCA4F483A797A"
+            + "BC0AB182B324FB61D108A94BB2C8E3FBB96ADAB760D7F4681D4F42A3DE394DF4"
+            + "AE56EDE76372BB190B07A7C8EE0A6D709E02FCE1CDF7E2ECC03404CD28342F61"
+            + "9172FE9CE98583FF8E4F1232EEF28183C3FE3B1B4C6FAD733BB5FCBC2EC22005"
+            + "C58EF1837D1683B2C6F34A26C1B2EFFA886B4238611FCFDCDE355B3B6519035B"
+            + "BC34F4DEF99C023861B46FC9D6E6C9077AD91D2691F7F7EE598CB0FAC186D91C"
+            + "AEFE130985139270B4130C93BC437944F4FD4452E2D74DD364F2E21E71F54BFF"
+            + "5CAE82AB9C9DF69EE86D2BC522363A0DABC521979B0DEADA1DBF9A42D5C4484E"
+            + "0ABCD06BFA53DDEF3C1B20EE3FD59D7C25E41D2B66C62E37FFFFFFFFFFFFFFFF");
+
+    /** The ffdhe4096 from RFC 7919. */
+    public static final DHGroup FFDHE_4096 = builtIn("ffdhe4096",
+              "FFFFFFFFFFFFFFFFADF85458A2BB4A9AAFDC5620273D3CF1D8B9C583CE2D3695"
+            + "A9E13641146433FBCC939DCE249B3EF97D2FE363630C75D8F681B202AEC4617A"
+            + "D3DF1ED5D5FD65612433F51F5F066ED0856365553DED1AF3B557135E7F57C935"
+            + "984F0C70E0E68B77E2A689DAF3EFE8721DF158A136ADE73530ACCA4F483A797A"
+            + "BC0AB182B324FB61D108A94BB2C8E3FBB96ADAB760D7F4681D4F42A3DE394DF4"
+            + "AE56EDE76372BB190B07A7C8EE0A6D709E02FCE1CDF7E2ECC03404CD28342F61"
+            + "9172FE9CE98583FF8E4F1232EEF28183C3FE3B1B4C6FAD733BB5FCBC2EC22005"
+            + "C58EF1837D1683B2C6F34A26C1B2EFFA886B4238611FCFDCDE355B3B6519035B"
+            + "BC34F4DEF99C023861B46FC9D6E6C9077AD91D2691F7F7EE598CB0FAC186D91C"
+            + "AEFE130985139270B4130C93BC437944F4FD4452E2D74DD364F2E21E71F54BFF"
+            + "5CAE82AB9C9DF69EE86D2BC522363A0DABC521979B0DEADA1DBF9A42D5C4484E"
+            + "0ABCD06BFA53DDEF3C1B20EE3FD59D7C25E41D2B669E1EF16E6F52C3164DF4FB"
+            + "7930E9E4E58857B6AC7D5F42D69F6D187763CF1D5503400487F55BA57E31CC7A"
+            + "7135C886EFB4318AED6A1E012D9E6832A907600A918130C46DC778F971AD0038"
+            + "092999A333CB8B7A1A1DB93D7140003C2A4ECEA9F98D0ACC0A8291CDCEC97DCF"
+            + "8EC9B55A7F88A46B4DB5A851F44182E1C68A007E5E655F6AFFFFFFFFFFFFFFFF");
+
+    private final String name;
+    private final BigInteger p;
+    private final BigInteger q;
+    private final BigInteger g;
+    private final boolean builtIn;
+
+    /**
+     * Creates a group after checking its structure: p odd with p = 2q + 1 and 1 < g < p - 1.
+     * Primality of p and q is not checked here, as it is far more expensive; see {@link #isValid(int)}.
+     *
+     * @param name A name for the group (used as its key in a parameter store)
+     * @param p The safe prime modulus
+     * @param g The generator
+     * @throws IllegalArgumentException if the structure is wrong
+     */
+    public DHGroup(String name, BigInteger p, BigInteger g) {
+        this(name, p, g, false);
+    }
+
+    private DHGroup(String name, BigInteger p, BigInteger g, boolean builtIn) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Group name must not be empty");
+        }
+        if (p.bitLength() < 3 || !p.testBit(0) || !p.testBit(1)) {
+            throw new IllegalArgumentException("Modulus must be of the form 2q + 1 with q odd");
+        }
+        if (g.compareTo(BigInteger.ONE) <= 0 || g.compareTo(p.subtract(BigInteger.ONE)) >= 0) {
+            throw new IllegalArgumentException("Generator must be in (1, p - 1)");
+        }
+        this.name = name;
+        this.p = p;
+        this.q = p.shiftRight(1);
+        this.g = g;
+        this.builtIn = builtIn;
+    }
+
+    private static DHGroup builtIn(String name, String hex) {
+        return new DHGroup(name, new BigInteger(hex, 16), BigInteger.TWO, true);
+    }
+
+    /**
+     * Generates a new random group with {@link SafePrimes}. The generator is the square of
+     * {@link DiffieHelman#findGenerator}, which generates all of Zp*, so g has order q.
+     *
+     * @param bitLength The bit length of p (at least 3)
+     * @param k The number of rounds for the Miller-Rabin test on q
+     * @return A new group named "generated" plus its bit length
+     */
+    public static DHGroup generate(int bitLength, int k) {
+        KeyGenerationEvent event = CryptoMetrics.beginKeyGeneration();
+        BigInteger p = SafePrimes.sampleSafePrime(bitLength, k);
+        BigInteger g = DiffieHelman.findGenerator(p.shiftRight(1), p).modPow(BigInteger.TWO, p);
+        CryptoMetrics.endKeyGeneration(event, "DH", bitLength);
+        return new DHGroup("generated" + bitLength, p, g);
+    }
+
+    /** @return The built-in RFC groups, smallest first */
+    public static DHGroup[] builtInGroups() {
+        return new DHGroup[] { MODP_1536, MODP_2048, FFDHE_2048, MODP_3072, FFDHE_3072, MODP_4096, FFDHE_4096 };
+    }
+
+    /**
+     * Fully validates the group: q is prime (k Miller-Rabin rounds), p is prime (Pocklington,
+     * from 2^(p-1) ≡ 1 and gcd(3, p) = 1), and g has order q.
+     *
+     * @param k The number of rounds for the Miller-Rabin test on q
+     * @return true if the group is a valid safe-prime group
+     */
+    public boolean isValid(int k) {
+        if (p.mod(BigInteger.valueOf(3)).signum() == 0
+                || !BigInteger.TWO.modPow(p.subtract(BigInteger.ONE), p).equals(BigInteger.ONE)
+                || !Primes.isProbablePrime(q, k)) {
+            return false;
+        }
+        // g ≠ 1 and q is prime, so g has order q exactly when g^q ≡ 1
+        return g.modPow(q, p).equals(BigInteger.ONE);
+    }
+
+    /** @return The name of the group */
+    public String getName() {
+        return name;
+    }
+
+    /** @return The safe prime modulus p */
+    public BigInteger getP() {
+        return p;
+    }
+
+    /** @return The prime subgroup order q = (p - 1) / 2 */
+    public BigInteger getQ() {
+        return q;
+    }
+
+    /** @return The generator g */
+    public BigInteger getG() {
+        return g;
+    }
+
+    /** @return The bit length of p */
+    public int bitLength() {
+        return p.bitLength();
+    }
+
+    /** @return true for the RFC 3526 and RFC 7919 groups */
+    public boolean isBuiltIn() {
+        return builtIn;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof DHGroup)) {
+            return false;
+        }
+        DHGroup other = (DHGroup) o;
+        return p.equals(other.p) && g.equals(other.g);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * p.hashCode() + g.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + bitLength() + " bits)";
+    }
+}
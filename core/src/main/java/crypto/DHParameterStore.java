@@ -0,0 +1,292 @@
+package crypto;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * A cache of Diffie-Hellman groups keyed by the bit length of p, so that a service can start
+ * with ready-made parameters instead of generating a safe prime.
+ *
+ * Every store holds the built-in RFC 3526 and RFC 7919 groups. Generated or imported groups
+ * can be added and saved to a compact binary file, which {@link #load(Path)} reads back through
+ * a memory-mapped buffer. Groups are validated once, when they enter the store: {@link #add}
+ * runs the full safe-prime check, and {@link #load} trusts only files whose checksum matches.
+ * Every group handed out has a generator of order q.
+ * Lookups afterwards are a map read. A store may be shared between threads.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic "DHPS"
+ *   short  version (1)
+ *   int    number of groups
+ *   per group:
+ *     short  name length, then the UTF-8 name
+ *     int    length of p, then p as unsigned big-endian bytes
+ *     int    length of g, then g as unsigned big-endian bytes
+ *   long   CRC-32 of everything before it
+ * </pre>
+ * q is not stored; it is always (p - 1) / 2.
+ */
+public class DHParameterStore {
+
+    private static final int MAGIC = 0x44485053;  // "DHPS"
+    private static final short VERSION = 1;
+
+    /** Miller-Rabin rounds used to validate groups added from outside. */
+    private static final int VALIDATION_ROUNDS = 40;
+
+    private final Map<Integer, CopyOnWriteArrayList<DHGroup>> groups = new ConcurrentHashMap<>();
+
+    /** Generations in progress in {@link #getOrGenerate}, by bit length. */
+    private final Map<Integer, CompletableFuture<DHGroup>> generating = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a store holding only the built-in RFC groups.
+     */
+    public DHParameterStore() {
+        for (DHGroup group : DHGroup.builtInGroups()) {
+            put(group);
+        }
+    }
+
+    /**
+     * Returns a group whose p has exactly the given bit length. Generated groups are preferred
+     * over built-in ones, and among several the first one added is returned.
+     *
+     * @param bitLength The bit length of p
+     * @return A validated group, or null if the store has none of that size
+     */
+    public DHGroup get(int bitLength) {
+        List<DHGroup> candidates = groups.get(bitLength);
+        if (candidates == null) {
+            return null;
+        }
+        DHGroup fallback = null;
+        for (DHGroup group : candidates) {
+            if (!group.isBuiltIn()) {
+                return group;
+            }
+            if (fallback == null) {
+                fallback = group;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Returns the group with the given name.
+     *
+     * @param name The group name, e.g. "ffdhe2048"
+     * @return The group, or null if there is none with that name
+     */
+    public DHGroup get(String name) {
+        for (List<DHGroup> candidates : groups.values()) {
+            for (DHGroup group : candidates) {
+                if (group.getName().equals(name)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a group of the given bit length, generating and adding one if the store has none.
+     * Concurrent callers asking for the same missing size share a single generation.
+     *
+     * @param bitLength The bit length of p
+     * @param k The number of rounds for the Miller-Rabin test when generating
+     * @return A validated group
+     */
+    public DHGroup getOrGenerate(int bitLength, int k) {
+        DHGroup group = get(bitLength);
+        if (group != null) {
+            return group;
+        }
+
+        CompletableFuture<DHGroup> future = new CompletableFuture<>();
+        CompletableFuture<DHGroup> running = generating.putIfAbsent(bitLength, future);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw ex;
+            }
+        }
+        try {
+            // Another caller may have finished its generation since the first lookup
+            group = get(bitLength);
+            if (group == null) {
+                group = DHGroup.generate(bitLength, k);
+                put(group);
+            }
+            future.complete(group);
+            return group;
+        } catch (RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            generating.remove(bitLength, future);
+        }
+    }
+
+    /**
+     * Adds a group after fully validating it.
+     *
+     * @param group The group to add
+     * @throws IllegalArgumentException if the group is not a valid safe-prime group
+     */
+    public void add(DHGroup group) {
+        if (!group.isValid(VALIDATION_ROUNDS)) {
+            throw new IllegalArgumentException("Not a valid safe-prime group: " + group);
+        }
+        put(group);
+    }
+
+    /** @return All groups in the store, smallest first */
+    public List<DHGroup> groups() {
+        List<DHGroup> all = new ArrayList<>();
+        groups.keySet().stream().sorted().forEach(bits -> all.addAll(groups.get(bits)));
+        return all;
+    }
+
+    private void put(DHGroup group) {
+        CopyOnWriteArrayList<DHGroup> list = groups.computeIfAbsent(group.bitLength(), bits -> new CopyOnWriteArrayList<>());
+        list.addIfAbsent(group);
+    }
+
+    /**
+     * Writes the non-built-in groups to a file. The file is written next to the target and
+     * moved into place, so readers never see a partial file.
+     *
+     * @param path The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        List<byte[]> names = new ArrayList<>();
+        List<byte[]> ps = new ArrayList<>();
+        List<byte[]> gs = new ArrayList<>();
+        int size = 4 + 2 + 4 + 8;
+        for (DHGroup group : groups()) {
+            if (group.isBuiltIn()) {
+                continue;
+            }
+            byte[] name = group.getName().getBytes(StandardCharsets.UTF_8);
+            byte[] p = unsignedBytes(group.getP());
+            byte[] g = unsignedBytes(group.getG());
+            names.add(name);
+            ps.add(p);
+            gs.add(g);
+            size += 2 + name.length + 4 + p.length + 4 + g.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            buffer.putShort((short) names.get(i).length).put(names.get(i));
+            buffer.putInt(ps.get(i).length).put(ps.get(i));
+            buffer.putInt(gs.get(i).length).put(gs.get(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a store saved with {@link #save(Path)}. The file is memory-mapped and its checksum
+     * verified; the groups in it are added without repeating the primality checks.
+     *
+     * @param path The file to read
+     * @return A store with the built-in groups plus the groups from the file
+     * @throws IOException if the file cannot be read, or is not a valid store file
+     */
+    public static DHParameterStore load(Path path) throws IOException {
+        DHParameterStore store = new DHParameterStore();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < 18 || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a DH parameter file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            ByteBuffer body = buffer.duplicate().limit((int) length - 8);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (crc.getValue() != buffer.getLong((int) length - 8)) {
+                throw new IOException("Checksum mismatch in DH parameter file: " + path);
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a DH parameter file: " + path);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported DH parameter file version " + version);
+            }
+
+            int count = buffer.getInt();
+            try {
+                for (int i = 0; i < count; i++) {
+                    byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(name);
+                    BigInteger p = new BigInteger(1, bytes(buffer));
+                    BigInteger g = new BigInteger(1, bytes(buffer));
+                    store.put(new DHGroup(new String(name, StandardCharsets.UTF_8), p, g));
+                }
+            } catch (RuntimeException ex) {
+                throw new IOException("Corrupt DH parameter file: " + path, ex);
+            }
+        }
+        return store;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] data = new byte[length];
+        buffer.get(data);
+        return data;
+    }
+
+    private static byte[] unsignedBytes(BigInteger x) {
+        byte[] bytes = x.toByteArray();
+        if (bytes[0] == 0 && bytes.length > 1) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+}
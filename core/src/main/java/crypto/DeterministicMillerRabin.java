@@ -0,0 +1,123 @@
+package crypto;
+
+/**
+ * Deterministic Miller-Rabin test for 64-bit integers.
+ *
+ * Every composite n < 2^64 fails the strong test for at least one of the first twelve primes
+ * as bases (2, 3, ..., 37), so running exactly those rounds decides primality with no error.
+ * All arithmetic is done on primitive longs in Montgomery form with R = 2^64, so a test
+ * allocates nothing.
+ */
+public class DeterministicMillerRabin {
+
+    private static final long[] BASES = { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37 };
+
+    /**
+     * Decides whether n, read as an unsigned 64-bit integer, is prime.
+     *
+     * @param n The number to test, as an unsigned value in [0, 2^64)
+     * @return true if n is prime, false otherwise
+     */
+    public static boolean isPrime(long n) {
+        if (Long.compareUnsigned(n, 2) < 0) {
+            return false;
+        }
+        for (long p : BASES) {
+            if (n == p) {
+                return true;
+            }
+            if (Long.remainderUnsigned(n, p) == 0) {
+                return false;
+            }
+        }
+        // No factor up to 37, so n < 41^2 is prime
+        if (Long.compareUnsigned(n, 41 * 41) < 0) {
+            return true;
+        }
+
+        // n - 1 = d * 2^s with d odd
+        long nMinusOne = n - 1;
+        int s = Long.numberOfTrailingZeros(nMinusOne);
+        long d = nMinusOne >>> s;
+
+        long nInv = montgomeryInverse(n);
+        long one = Long.remainderUnsigned(-n, n);  // R mod n
+        long minusOne = n - one;
+        long r2 = one;  // R^2 mod n, by doubling R mod n 64 times
+        for (int i = 0; i < 64; i++) {
+            r2 = addMod(r2, r2, n);
+        }
+
+        for (long a : BASES) {
+            long x = pow(multiply(a, r2, n, nInv), d, one, n, nInv);
+            if (x == one || x == minusOne) {
+                continue;
+            }
+            boolean passed = false;
+            for (int i = 1; i < s; i++) {
+                x = multiply(x, x, n, nInv);
+                if (x == minusOne) {
+                    passed = true;
+                    break;
+                }
+                if (x == one) {
+                    break;
+                }
+            }
+            if (!passed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes -n^(-1) mod 2^64 for odd n by Newton iteration.
+     */
+    private static long montgomeryInverse(long n) {
+        long inv = n;  // correct to 3 bits, since n * n ≡ 1 (mod 8)
+        for (int i = 0; i < 5; i++) {
+            inv *= 2 - n * inv;
+        }
+        return -inv;
+    }
+
+    /**
+     * Montgomery product a * b * 2^(-64) mod n, for a, b < n.
+     */
+    private static long multiply(long a, long b, long n, long nInv) {
+        long lo = a * b;
+        long hi = MontgomeryContext.unsignedMultiplyHigh(a, b);
+        long m = lo * nInv;
+        long mnHi = MontgomeryContext.unsignedMultiplyHigh(m, n);
+        // lo + low(m*n) is 0 mod 2^64 and carries exactly when lo is non-zero
+        long s = hi + (lo != 0 ? 1 : 0);
+        long t = s + mnHi;
+        if (Long.compareUnsigned(t, s) < 0 || Long.compareUnsigned(t, n) >= 0) {
+            t -= n;
+        }
+        return t;
+    }
+
+    /**
+     * Computes base^e in Montgomery form by left-to-right binary exponentiation.
+     */
+    private static long pow(long base, long e, long one, long n, long nInv) {
+        long result = one;
+        for (int i = 63 - Long.numberOfLeadingZeros(e); i >= 0; i--) {
+            result = multiply(result, result, n, nInv);
+            if (((e >>> i) & 1) != 0) {
+                result = multiply(result, base, n, nInv);
+            }
+        }
+        return result;
+    }
+
+    private static long addMod(long a, long b, long n) {
+        long s = a + b;
+        if (Long.compareUnsigned(s, a) < 0 || Long.compareUnsigned(s, n) >= 0) {
+            s -= n;
+        }
+        return s;
+    }
+}
@@ -0,0 +1,107 @@
+package crypto;
+
+import java.math.BigInteger;
+
+public class DiffieHelman {
+    /**
+         * Finds a generator g of Zp*, i.e. an element with g^2 ≠ 1 and g^q ≠ 1 (mod p).
+         * For a safe prime p = 2q + 1 with p ≡ 3 (mod 4), the generators are exactly the quadratic
+         * non-residues other than -1, so one is read off p mod 8 without any exponentiation:
+         * 2 is a non-residue when p ≡ 3 (mod 8), and -2 = p - 2 is one when p ≡ 7 (mod 8).
+         * Other moduli fall back to a linear search.
+         *
+         * @param q The order of the subgroup.
+         * @param p The prime modulus.
+         * @return A generator g of Zp*.
+         */
+        public static BigInteger findGenerator(BigInteger q, BigInteger p) {
+            if (p.bitLength() > 2 && p.equals(q.shiftLeft(1).add(BigInteger.ONE))) {
+                int pMod8 = p.intValue() & 7;
+                if (pMod8 == 3) {
+                    return BigInteger.TWO;
+                }
+                if (pMod8 == 7) {
+                    return p.subtract(BigInteger.TWO);
+                }
+            }
+
+            BigInteger g = BigInteger.TWO;
+            while (true) {
+                if (!g.modPow(BigInteger.TWO, p).equals(BigInteger.ONE) && !g.modPow(q, p).equals(BigInteger.ONE)) {
+                    break;
+                }
+                g = g.add(BigInteger.ONE);
+            }
+            return g;
+        }
+
+        /**
+         * Generates a private key randomly within the range [1, q-1].
+         *
+         * @param q The order of the subgroup.
+         * @return A randomly generated private key.
+         */
+        public static BigInteger generatePrivateKey(BigInteger q) {
+            return Arithmetic.randomBetween(BigInteger.ONE, q.subtract(BigInteger.ONE), Randomness.keyMaterial());
+        }
+
+        /**
+         * Computes the public key based on the generator, private key, and prime modulus.
+         * The public key is calculated as g^privateKey mod p.
+         *
+         * @param g The generator.
+         * @param privateKey The private key.
+         * @param p The prime modulus.
+         * @return The computed public key.
+         */
+        public static BigInteger computePublicKey(BigInteger g, BigInteger privateKey, BigInteger p) {
+            return g.modPow(privateKey, p);
+        }
+
+        /**
+         * Computes the shared secret key based on the other party's public key,
+         * the private key, and the prime modulus.
+         * The shared key is calculated as publicKey^privateKey mod p.
+         *
+         * @param publicKey The public key of the other party.
+         * @param privateKey The private key of the current party.
+         * @param p The prime modulus.
+         * @return The computed shared secret key.
+         */
+        public static BigInteger computeSharedKey(BigInteger publicKey, BigInteger privateKey, BigInteger p) {
+            long start = CryptoMetrics.start();
+            BigInteger sharedKey = publicKey.modPow(privateKey, p);
+            CryptoMetrics.stop(CryptoMetrics.Operation.SHARED_KEY, start);
+            return sharedKey;
+        }
+
+        /**
+         * Checks that a peer's public key is a member of the subgroup of order q in Zp*:
+         * 1 < publicKey < p-1 and publicKey^q ≡ 1 (mod p). This only accepts honest keys when
+         * the generator itself has order q, as with every {@link DHGroup}.
+         *
+         * @param publicKey The public key of the other party.
+         * @param p The prime modulus.
+         * @param q The order of the subgroup.
+         * @return true if the key lies in the order-q subgroup and is not ±1.
+         */
+        public static boolean isValidPublicKey(BigInteger publicKey, BigInteger p, BigInteger q) {
+            if (publicKey.compareTo(BigInteger.ONE) <= 0 || publicKey.compareTo(p.subtract(BigInteger.ONE)) >= 0) {
+                return false;
+            }
+            return publicKey.modPow(q, p).equals(BigInteger.ONE);
+        }
+
+        /**
+         * Computes the public key g^privateKey mod p with a precomputed fixed-base table for (g, p).
+         * Build the table once per group and share it across threads; each key then costs far
+         * fewer multiplications than a generic exponentiation.
+         *
+         * @param generator Fixed-base table for the generator g modulo the prime p.
+         * @param privateKey The private key.
+         * @return The computed public key.
+         */
+        public static BigInteger computePublicKey(FixedBaseExponentiator generator, BigInteger privateKey) {
+            return generator.pow(privateKey);
+        }
+}
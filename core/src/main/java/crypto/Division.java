@@ -0,0 +1,247 @@
+package crypto;
+
+import java.math.BigInteger;
+
+/**
+ * Word-level division of non-negative integers, returning [quotient, remainder].
+ *
+ * Divisors that fit in one 32-bit word take a single pass over the dividend. Other divisors
+ * use Knuth's Algorithm D (TAOCP Vol. 2, 4.3.1), which produces one quotient word per step.
+ * Large operands use Burnikel-Ziegler recursive division, whose recursion depth grows with
+ * the logarithm of the divisor size, with Algorithm D as its base case. No path recurses per
+ * bit or per word of the dividend.
+ */
+public class Division {
+
+    /** Divisor size in limbs at or above which Burnikel-Ziegler is used (same as the JDK). */
+    static final int BURNIKEL_ZIEGLER_THRESHOLD = 80;
+
+    /** Minimum excess of dividend limbs over divisor limbs for Burnikel-Ziegler (same as the JDK). */
+    static final int BURNIKEL_ZIEGLER_OFFSET = 40;
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    /**
+     * Computes quotient and remainder of x divided by y.
+     *
+     * @param x Dividend (non-negative)
+     * @param y Divisor (positive)
+     * @return Array containing [quotient, remainder]
+     * @throws ArithmeticException if y is zero
+     * @throws IllegalArgumentException if x or y is negative
+     */
+    public static BigInteger[] divide(BigInteger x, BigInteger y) {
+        if (y.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (x.signum() < 0 || y.signum() < 0) {
+            throw new IllegalArgumentException("Operands must be non-negative");
+        }
+        if (x.compareTo(y) < 0) {
+            return new BigInteger[] { BigInteger.ZERO, x };
+        }
+
+        int xLen = LimbMultiplier.limbCount(x);
+        int yLen = LimbMultiplier.limbCount(y);
+        if (yLen == 1) {
+            return divideByWord(LimbMultiplier.toLimbs(x, xLen), y.intValue());
+        }
+        if (yLen >= BURNIKEL_ZIEGLER_THRESHOLD && xLen - yLen >= BURNIKEL_ZIEGLER_OFFSET) {
+            return burnikelZiegler(x, y);
+        }
+        return knuth(x, y);
+    }
+
+    /**
+     * Divides a magnitude by a single 32-bit word (treated as unsigned).
+     */
+    private static BigInteger[] divideByWord(int[] u, int divisor) {
+        long d = divisor & MASK;
+        int[] q = new int[u.length];
+        long r = 0;
+        for (int i = u.length - 1; i >= 0; i--) {
+            long num = (r << 32) | (u[i] & MASK);
+            q[i] = (int) Long.divideUnsigned(num, d);
+            r = Long.remainderUnsigned(num, d);
+        }
+        return new BigInteger[] { LimbMultiplier.fromLimbs(q), BigInteger.valueOf(r) };
+    }
+
+    /**
+     * Knuth's Algorithm D on BigInteger operands; y must have at least two limbs.
+     */
+    private static BigInteger[] knuth(BigInteger x, BigInteger y) {
+        int m = LimbMultiplier.limbCount(x);
+        int n = LimbMultiplier.limbCount(y);
+        if (m < n) {
+            return new BigInteger[] { BigInteger.ZERO, x };
+        }
+        if (n == 1) {
+            return divideByWord(LimbMultiplier.toLimbs(x, m), y.intValue());
+        }
+        int[] q = new int[m - n + 1];
+        int[] r = new int[n];
+        knuth(LimbMultiplier.toLimbs(x, m), LimbMultiplier.toLimbs(y, n), q, r);
+        return new BigInteger[] { LimbMultiplier.fromLimbs(q), LimbMultiplier.fromLimbs(r) };
+    }
+
+    /**
+     * Algorithm D: divides u (m limbs) by v (n ≥ 2 limbs, top limb non-zero), writing the
+     * m-n+1 quotient limbs into q and the n remainder limbs into r.
+     */
+    static void knuth(int[] u, int[] v, int[] q, int[] r) {
+        int m = u.length;
+        int n = v.length;
+
+        // D1: normalize so the top bit of the divisor is set
+        int s = Integer.numberOfLeadingZeros(v[n - 1]);
+        int[] vn = new int[n];
+        int[] un = new int[m + 1];
+        if (s == 0) {
+            System.arraycopy(v, 0, vn, 0, n);
+            System.arraycopy(u, 0, un, 0, m);
+        } else {
+            for (int i = n - 1; i > 0; i--) {
+                vn[i] = (v[i] << s) | (v[i - 1] >>> (32 - s));
+            }
+            vn[0] = v[0] << s;
+            un[m] = u[m - 1] >>> (32 - s);
+            for (int i = m - 1; i > 0; i--) {
+                un[i] = (u[i] << s) | (u[i - 1] >>> (32 - s));
+            }
+            un[0] = u[0] << s;
+        }
+
+        long vTop = vn[n - 1] & MASK;
+        long vNext = vn[n - 2] & MASK;
+        for (int j = m - n; j >= 0; j--) {
+            // D3: estimate the quotient word from the top two dividend words
+            long num = ((un[j + n] & MASK) << 32) | (un[j + n - 1] & MASK);
+            long qhat = Long.divideUnsigned(num, vTop);
+            long rhat = num - qhat * vTop;
+            while (qhat > MASK
+                    || Long.compareUnsigned(qhat * vNext, (rhat << 32) | (un[j + n - 2] & MASK)) > 0) {
+                qhat--;
+                rhat += vTop;
+                if (rhat > MASK) {
+                    break;
+                }
+            }
+
+            // D4: multiply and subtract
+            long borrow = 0;
+            long t;
+            for (int i = 0; i < n; i++) {
+                long p = qhat * (vn[i] & MASK);
+                t = (un[i + j] & MASK) - borrow - (p & MASK);
+                un[i + j] = (int) t;
+                borrow = (p >>> 32) - (t >> 32);
+            }
+            t = (un[j + n] & MASK) - borrow;
+            un[j + n] = (int) t;
+
+            // D5/D6: the estimate was one too large at most; add the divisor back
+            q[j] = (int) qhat;
+            if (t < 0) {
+                q[j]--;
+                long carry = 0;
+                for (int i = 0; i < n; i++) {
+                    t = (un[i + j] & MASK) + (vn[i] & MASK) + carry;
+                    un[i + j] = (int) t;
+                    carry = t >>> 32;
+                }
+                un[j + n] += (int) carry;
+            }
+        }
+
+        // D8: unnormalize the remainder
+        if (s == 0) {
+            System.arraycopy(un, 0, r, 0, n);
+        } else {
+            for (int i = 0; i < n; i++) {
+                r[i] = (un[i] >>> s) | (un[i + 1] << (32 - s));
+            }
+        }
+    }
+
+    /**
+     * Burnikel-Ziegler division: splits the dividend into blocks of the (padded, normalized)
+     * divisor size and divides block pairs with {@link #divide2n1n}.
+     */
+    private static BigInteger[] burnikelZiegler(BigInteger a, BigInteger b) {
+        int r = LimbMultiplier.limbCount(b);
+
+        // Pad the divisor to n = j*m limbs, with m a power of two so the recursion halves evenly
+        int m = 1 << (32 - Integer.numberOfLeadingZeros(r / BURNIKEL_ZIEGLER_THRESHOLD));
+        int j = (r + m - 1) / m;
+        int n = j * m;
+        int nBits = 32 * n;
+        int sigma = Math.max(0, nBits - b.bitLength());
+        b = b.shiftLeft(sigma);
+        a = a.shiftLeft(sigma);
+
+        // Number of n-limb blocks, with room to keep the top block below the divisor
+        int t = Math.max((a.bitLength() + nBits) / nBits, 2);
+        BigInteger mask = BigInteger.ONE.shiftLeft(nBits).subtract(BigInteger.ONE);
+
+        BigInteger z = a.shiftRight((t - 2) * nBits);
+        BigInteger quotient = BigInteger.ZERO;
+        for (int i = t - 2; i > 0; i--) {
+            BigInteger[] qr = divide2n1n(z, b, n);
+            quotient = quotient.shiftLeft(nBits).add(qr[0]);
+            z = qr[1].shiftLeft(nBits).add(a.shiftRight((i - 1) * nBits).and(mask));
+        }
+        BigInteger[] qr = divide2n1n(z, b, n);
+        quotient = quotient.shiftLeft(nBits).add(qr[0]);
+        return new BigInteger[] { quotient, qr[1].shiftRight(sigma) };
+    }
+
+    /**
+     * Divides a 2n-limb number by a normalized n-limb number, where a < b * 2^(32n).
+     */
+    private static BigInteger[] divide2n1n(BigInteger a, BigInteger b, int n) {
+        if ((n & 1) != 0 || n < BURNIKEL_ZIEGLER_THRESHOLD) {
+            return knuth(a, b);
+        }
+        int half = n / 2;
+        int halfBits = 32 * half;
+        BigInteger lowMask = BigInteger.ONE.shiftLeft(halfBits).subtract(BigInteger.ONE);
+
+        BigInteger[] qr1 = divide3n2n(a.shiftRight(halfBits), b, half);
+        BigInteger a4 = a.and(lowMask);
+        BigInteger[] qr2 = divide3n2n(qr1[1].shiftLeft(halfBits).add(a4), b, half);
+        return new BigInteger[] { qr1[0].shiftLeft(halfBits).add(qr2[0]), qr2[1] };
+    }
+
+    /**
+     * Divides a 3h-limb number by a normalized 2h-limb number, where a < b * 2^(32h).
+     */
+    private static BigInteger[] divide3n2n(BigInteger a, BigInteger b, int half) {
+        int halfBits = 32 * half;
+        BigInteger lowMask = BigInteger.ONE.shiftLeft(halfBits).subtract(BigInteger.ONE);
+        BigInteger b1 = b.shiftRight(halfBits);
+        BigInteger b2 = b.and(lowMask);
+        BigInteger a12 = a.shiftRight(halfBits);
+        BigInteger a3 = a.and(lowMask);
+        BigInteger a1 = a.shiftRight(2 * halfBits);
+
+        BigInteger q;
+        BigInteger r1;
+        if (a1.compareTo(b1) < 0) {
+            BigInteger[] qr = divide2n1n(a12, b1, half);
+            q = qr[0];
+            r1 = qr[1];
+        } else {
+            // Quotient estimate is the largest h-limb value: q = 2^(32h) - 1
+            q = lowMask;
+            r1 = a12.subtract(b1.shiftLeft(halfBits)).add(b1);
+        }
+
+        BigInteger r = r1.shiftLeft(halfBits).add(a3).subtract(q.multiply(b2));
+        while (r.signum() < 0) {
+            r = r.add(b);
+            q = q.subtract(BigInteger.ONE);
+        }
+        return new BigInteger[] { q, r };
+    }
+}
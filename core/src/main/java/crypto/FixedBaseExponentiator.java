@@ -0,0 +1,187 @@
+package crypto;
+
+import java.math.BigInteger;
+
+/**
+ * Fixed-base exponentiation g^x mod p using the Lim-Lee comb method.
+ *
+ * The exponent is cut into h "teeth" of a = ceil(t/h) bits, and each tooth into v blocks of
+ * b = ceil(a/v) bits. For every block j the table holds all 2^h - 1 products of the powers
+ * g^(2^(i*a + j*b)), so one exponentiation needs only b squarings and at most v*b
+ * multiplications, instead of the t squarings of a generic modPow. The table holds
+ * v * (2^h - 1) residues; {@link #tableBytes()} reports its size.
+ *
+ * The table is built once in the constructor and never modified afterwards, so one instance
+ * can be shared read-only across threads. Each thread multiplies with its own copy of the
+ * Montgomery context.
+ */
+public class FixedBaseExponentiator {
+
+    /** Default number of teeth: 255 table entries per block. */
+    public static final int DEFAULT_TEETH = 8;
+
+    /** Default number of blocks per tooth. */
+    public static final int DEFAULT_BLOCKS = 2;
+
+    private final BigInteger base;
+    private final MontgomeryContext context;
+    private final ThreadLocal<MontgomeryContext> contexts;
+    private final int maxExponentBits;
+    private final int teeth;
+    private final int blocks;
+    private final int toothBits;  // a
+    private final int blockBits;  // b
+    private final long[][][] table;  // table[j][u] for block j and tooth mask u
+
+    /**
+     * Builds the comb table for g modulo p with the default table shape.
+     *
+     * @param g The base (typically the group generator)
+     * @param p The odd modulus (typically the group prime)
+     * @param maxExponentBits Largest exponent bit length the table covers (e.g. the bit length of q)
+     */
+    public FixedBaseExponentiator(BigInteger g, BigInteger p, int maxExponentBits) {
+        this(g, p, maxExponentBits, DEFAULT_TEETH, DEFAULT_BLOCKS);
+    }
+
+    /**
+     * Builds the comb table for g modulo p. More teeth or more blocks mean fewer operations
+     * per exponentiation and a larger table: v * (2^h - 1) residues of p's size.
+     *
+     * @param g The base (typically the group generator)
+     * @param p The odd modulus (typically the group prime)
+     * @param maxExponentBits Largest exponent bit length the table covers (e.g. the bit length of q)
+     * @param teeth Number of teeth h, in [1, 16]
+     * @param blocks Number of blocks v per tooth, at least 1
+     * @throws IllegalArgumentException if p is not odd and greater than 1, or a parameter is out of range
+     */
+    public FixedBaseExponentiator(BigInteger g, BigInteger p, int maxExponentBits, int teeth, int blocks) {
+        if (maxExponentBits < 1) {
+            throw new IllegalArgumentException("Maximum exponent bit length must be positive");
+        }
+        if (teeth < 1 || teeth > 16) {
+            throw new IllegalArgumentException("Number of teeth must be in [1, 16]");
+        }
+        if (blocks < 1) {
+            throw new IllegalArgumentException("Number of blocks must be positive");
+        }
+        this.base = g;
+        this.context = new MontgomeryContext(p);
+        this.contexts = ThreadLocal.withInitial(context::copy);
+        this.maxExponentBits = maxExponentBits;
+        this.teeth = teeth;
+        this.blocks = blocks;
+        this.toothBits = (maxExponentBits + teeth - 1) / teeth;
+        this.blockBits = (toothBits + blocks - 1) / blocks;
+        this.table = buildTable();
+    }
+
+    private long[][][] buildTable() {
+        MontgomeryContext ctx = context;
+        int entries = 1 << teeth;
+        long[][][] t = new long[blocks][entries][];
+
+        // t[0][1 << i] = g^(2^(i*a))
+        long[] power = ctx.newElement();
+        ctx.toMontgomery(base, power);
+        for (int i = 0; i < teeth; i++) {
+            t[0][1 << i] = power.clone();
+            if (i + 1 < teeth) {
+                for (int s = 0; s < toothBits; s++) {
+                    ctx.square(power, power);
+                }
+            }
+        }
+        // t[0][u] = t[0][u without its top bit] * t[0][top bit]
+        for (int u = 3; u < entries; u++) {
+            int top = Integer.highestOneBit(u);
+            if (u != top) {
+                long[] product = ctx.newElement();
+                ctx.multiply(t[0][u ^ top], t[0][top], product);
+                t[0][u] = product;
+            }
+        }
+        // t[j][u] = t[j-1][u]^(2^b)
+        for (int j = 1; j < blocks; j++) {
+            for (int u = 1; u < entries; u++) {
+                long[] value = t[j - 1][u].clone();
+                for (int s = 0; s < blockBits; s++) {
+                    ctx.square(value, value);
+                }
+                t[j][u] = value;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Computes g^exponent mod p. Exponents longer than the table covers fall back to a
+     * generic sliding-window exponentiation.
+     *
+     * @param exponent The exponent (must be non-negative)
+     * @return g^exponent mod p
+     * @throws ArithmeticException if the exponent is negative
+     */
+    public BigInteger pow(BigInteger exponent) {
+        if (exponent.signum() < 0) {
+            throw new ArithmeticException("Exponent must be non-negative");
+        }
+        MontgomeryContext ctx = contexts.get();
+        if (exponent.bitLength() > maxExponentBits) {
+            return ctx.modPow(base, exponent);
+        }
+
+        long[] words = toWords(exponent, maxExponentBits);
+        long[] result = ctx.newElement();
+        ctx.setOne(result);
+        boolean started = false;
+        for (int k = blockBits - 1; k >= 0; k--) {
+            if (started) {
+                ctx.square(result, result);
+            }
+            for (int j = blocks - 1; j >= 0; j--) {
+                int u = 0;
+                int offset = j * blockBits + k;
+                if (offset >= toothBits) {
+                    continue;
+                }
+                for (int i = 0; i < teeth; i++) {
+                    u |= bit(words, i * toothBits + offset) << i;
+                }
+                if (u != 0) {
+                    if (started) {
+                        ctx.multiply(result, table[j][u], result);
+                    } else {
+                        System.arraycopy(table[j][u], 0, result, 0, result.length);
+                        started = true;
+                    }
+                }
+            }
+        }
+        return ctx.fromMontgomery(result);
+    }
+
+    /** @return The fixed base g */
+    public BigInteger getBase() {
+        return base;
+    }
+
+    /** @return The modulus p */
+    public BigInteger getModulus() {
+        return context.getModulus();
+    }
+
+    /** @return Approximate memory held by the precomputed table, in bytes */
+    public long tableBytes() {
+        return (long) blocks * ((1 << teeth) - 1) * context.limbs() * Long.BYTES;
+    }
+
+    private static int bit(long[] words, int index) {
+        int w = index >>> 6;
+        return w < words.length ? (int) (words[w] >>> (index & 63)) & 1 : 0;
+    }
+
+    private static long[] toWords(BigInteger x, int bits) {
+        return MontgomeryContext.toLimbs(x, (bits + 63) >>> 6);
+    }
+}
@@ -0,0 +1,27 @@
+package crypto;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one RSA key pair or DH group generation, emitted while
+ * {@link CryptoMetrics} is enabled.
+ */
+@Name("crypto.KeyGeneration")
+@Label("Key Generation")
+@Category("Crypto")
+@Description("Generation of an RSA key pair or a Diffie-Hellman group")
+class KeyGenerationEvent extends Event {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Bit Length")
+    int bitLength;
+
+    /** Start time for the latency histogram; transient fields are not recorded. */
+    transient long startNanos;
+}
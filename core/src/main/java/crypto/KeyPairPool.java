@@ -0,0 +1,47 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.function.Supplier;
+
+/**
+ * Background pool of pre-generated RSA keypairs of one modulus size.
+ * Each pooled value is the [N, e, d, p, q] array returned by {@link RSA#generateRSAKeys(int, int)}.
+ * See {@link BackgroundPool} for the refill policy and the metrics it exposes.
+ */
+public class KeyPairPool extends BackgroundPool<BigInteger[]> {
+
+    private KeyPairPool(int bitLength, int certainty, int capacity, int lowWater, int threads) {
+        super("keypair-pool-" + bitLength, generator(bitLength, certainty), capacity, lowWater, threads);
+    }
+
+    /**
+     * Creates a pool of RSA keypairs and starts filling it in the background.
+     *
+     * @param bitLength The bit length of the modulus N (should be even)
+     * @param certainty The probability of primality: 1 - (1/2)^certainty
+     * @param capacity Maximum number of keypairs kept in stock
+     * @param lowWater Stock level at or below which the pool refills
+     * @param threads Number of background worker threads
+     * @return The started pool
+     * @throws IllegalArgumentException if bitLength is odd or too small, certainty is not positive,
+     *         or the pool sizes are invalid
+     */
+    public static KeyPairPool rsa(int bitLength, int certainty, int capacity, int lowWater, int threads) {
+        KeyPairPool pool = new KeyPairPool(bitLength, certainty, capacity, lowWater, threads);
+        pool.start();
+        return pool;
+    }
+
+    /**
+     * Validates the key parameters before any worker starts, then returns the keypair generator.
+     */
+    private static Supplier<BigInteger[]> generator(int bitLength, int certainty) {
+        if (bitLength < 8 || bitLength % 2 != 0) {
+            throw new IllegalArgumentException("Bit length must be even and at least 8");
+        }
+        if (certainty < 1) {
+            throw new IllegalArgumentException("Certainty must be positive");
+        }
+        return () -> RSA.generateRSAKeys(bitLength, certainty);
+    }
+}
@@ -0,0 +1,335 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Multiplication of non-negative integers held as little-endian arrays of 32-bit limbs,
+ * with a schoolbook tier for small operands, a Karatsuba tier for medium operands and a
+ * Toom-3 tier for large operands. Above a size threshold the sub-products of each level are
+ * forked onto a fork-join pool.
+ *
+ * The cutoffs come from MultiplyBenchmark in the benchmarks module. On a single thread the
+ * JDK's BigInteger.multiply (whose inner loop is a HotSpot intrinsic) beat the limb tiers at
+ * every size measured, so {@link #multiply(BigInteger, BigInteger, ForkJoinPool)} falls back to
+ * it below {@link #PARALLEL_CUTOFF} or when the pool has a single worker, and only recurses
+ * itself where the parallel Toom-3 levels can pay. In the sequential limb path, Toom-3 through
+ * BigInteger slices lost to limb Karatsuba up to 2048 limbs, hence the high Toom-3 cutoff.
+ */
+public class LimbMultiplier {
+
+    /** Below this many limbs in the smaller operand, Karatsuba falls back to schoolbook. */
+    static final int KARATSUBA_CUTOFF = 48;
+
+    /** At or above this many limbs in the smaller operand, Toom-3 is used instead of Karatsuba. */
+    static final int TOOM3_CUTOFF = 4096;
+
+    /** At or above this many limbs in the smaller operand, sub-products are computed in parallel. */
+    static final int PARALLEL_CUTOFF = 2048;
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    /**
+     * Multiplies two BigIntegers, using the parallel limb multiplier for large operands
+     * and BigInteger.multiply otherwise.
+     *
+     * @param x First factor
+     * @param y Second factor
+     * @return The product x * y
+     */
+    public static BigInteger multiply(BigInteger x, BigInteger y) {
+        return multiply(x, y, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Multiplies two BigIntegers, forking the Toom-3 point products of large operands onto the
+     * given pool. Small operands, and any operands on a single-worker pool, go to BigInteger.multiply.
+     *
+     * @param x First factor
+     * @param y Second factor
+     * @param pool Pool that runs the parallel recursion
+     * @return The product x * y
+     */
+    public static BigInteger multiply(BigInteger x, BigInteger y, ForkJoinPool pool) {
+        if (limbCount(x) < PARALLEL_CUTOFF || limbCount(y) < PARALLEL_CUTOFF || pool.getParallelism() < 2) {
+            return x.multiply(y);
+        }
+        return pool.invoke(new ToomTask(x, y));
+    }
+
+    /**
+     * Multiplies two magnitudes held as little-endian 32-bit limbs, choosing the
+     * schoolbook, Karatsuba or Toom-3 tier by operand size. Runs on the calling thread.
+     *
+     * @param a First factor
+     * @param b Second factor
+     * @return The product, with a.length + b.length limbs
+     */
+    public static int[] multiply(int[] a, int[] b) {
+        if (Math.min(a.length, b.length) >= TOOM3_CUTOFF) {
+            return toLimbs(toom3(fromLimbs(a), fromLimbs(b)), a.length + b.length);
+        }
+        return karatsuba(a, 0, a.length, b, 0, b.length);
+    }
+
+    /**
+     * Schoolbook multiplication: out[outOff ..] += a[aOff .. aOff+aLen) * b[bOff .. bOff+bLen).
+     * out must have room for aLen + bLen limbs starting at outOff, and they must be zero.
+     */
+    static void schoolbook(int[] a, int aOff, int aLen, int[] b, int bOff, int bLen, int[] out, int outOff) {
+        for (int i = 0; i < aLen; i++) {
+            long ai = a[aOff + i] & MASK;
+            long carry = 0;
+            for (int j = 0; j < bLen; j++) {
+                long t = ai * (b[bOff + j] & MASK) + (out[outOff + i + j] & MASK) + carry;
+                out[outOff + i + j] = (int) t;
+                carry = t >>> 32;
+            }
+            out[outOff + i + bLen] = (int) carry;
+        }
+    }
+
+    /**
+     * Karatsuba multiplication of a[aOff .. aOff+aLen) by b[bOff .. bOff+bLen).
+     *
+     * @return The product, with aLen + bLen limbs
+     */
+    static int[] karatsuba(int[] a, int aOff, int aLen, int[] b, int bOff, int bLen) {
+        if (aLen < bLen) {
+            return karatsuba(b, bOff, bLen, a, aOff, aLen);
+        }
+        int[] out = new int[aLen + bLen];
+        if (bLen < KARATSUBA_CUTOFF) {
+            schoolbook(a, aOff, aLen, b, bOff, bLen, out, 0);
+            return out;
+        }
+
+        int half = (aLen + 1) / 2;
+        if (bLen <= half) {
+            // Unbalanced operands: split only the longer one
+            int[] low = karatsuba(a, aOff, half, b, bOff, bLen);
+            int[] high = karatsuba(a, aOff + half, aLen - half, b, bOff, bLen);
+            addInto(out, 0, low, low.length);
+            addInto(out, half, high, high.length);
+            return out;
+        }
+
+        // a = a1*B^half + a0, b = b1*B^half + b0
+        int[] z0 = karatsuba(a, aOff, half, b, bOff, half);
+        int[] z2 = karatsuba(a, aOff + half, aLen - half, b, bOff + half, bLen - half);
+        int[] sa = addHalves(a, aOff, half, aLen - half);
+        int[] sb = addHalves(b, bOff, half, bLen - half);
+        int[] z1 = karatsuba(sa, 0, sa.length, sb, 0, sb.length);
+
+        // z1 = (a0+a1)(b0+b1) - z0 - z2, which is never negative
+        subtractFrom(z1, z0);
+        subtractFrom(z1, z2);
+
+        addInto(out, 0, z0, z0.length);
+        addInto(out, half, z1, Math.min(z1.length, out.length - half));
+        addInto(out, 2 * half, z2, Math.min(z2.length, out.length - 2 * half));
+        return out;
+    }
+
+    /**
+     * Toom-3 multiplication of signed BigIntegers (Bodrato's interpolation sequence),
+     * recursing through the limb tiers on the calling thread.
+     */
+    static BigInteger toom3(BigInteger x, BigInteger y) {
+        Toom3 split = new Toom3(x, y);
+        return split.combine(
+                multiplySigned(split.a0, split.b0),
+                multiplySigned(split.p1, split.q1),
+                multiplySigned(split.pm1, split.qm1),
+                multiplySigned(split.p2, split.q2),
+                multiplySigned(split.a2, split.b2));
+    }
+
+    /**
+     * Sequential product of two signed BigIntegers through the limb tiers.
+     */
+    private static BigInteger multiplySigned(BigInteger x, BigInteger y) {
+        int sign = x.signum() * y.signum();
+        if (sign == 0) {
+            return BigInteger.ZERO;
+        }
+        int[] a = toLimbs(x.abs(), limbCount(x));
+        int[] b = toLimbs(y.abs(), limbCount(y));
+        BigInteger product = fromLimbs(multiply(a, b));
+        return sign < 0 ? product.negate() : product;
+    }
+
+    /**
+     * Splits both operands into three pieces and evaluates them at 0, 1, -1, 2 and infinity.
+     */
+    private static final class Toom3 {
+        final int shift;
+        final BigInteger a0, a2, b0, b2;
+        final BigInteger p1, pm1, p2, q1, qm1, q2;
+
+        Toom3(BigInteger x, BigInteger y) {
+            int limbs = Math.max(limbCount(x), limbCount(y));
+            shift = 32 * ((limbs + 2) / 3);
+            BigInteger mask = BigInteger.ONE.shiftLeft(shift).subtract(BigInteger.ONE);
+
+            BigInteger xa = x.abs();
+            BigInteger ya = y.abs();
+            BigInteger a1, b1;
+            a0 = signed(xa.and(mask), x);
+            a1 = signed(xa.shiftRight(shift).and(mask), x);
+            a2 = signed(xa.shiftRight(2 * shift), x);
+            b0 = signed(ya.and(mask), y);
+            b1 = signed(ya.shiftRight(shift).and(mask), y);
+            b2 = signed(ya.shiftRight(2 * shift), y);
+
+            BigInteger t = a0.add(a2);
+            p1 = t.add(a1);
+            pm1 = t.subtract(a1);
+            p2 = p1.add(a2).shiftLeft(1).subtract(a0);
+            t = b0.add(b2);
+            q1 = t.add(b1);
+            qm1 = t.subtract(b1);
+            q2 = q1.add(b2).shiftLeft(1).subtract(b0);
+        }
+
+        private static BigInteger signed(BigInteger piece, BigInteger original) {
+            return original.signum() < 0 ? piece.negate() : piece;
+        }
+
+        BigInteger combine(BigInteger v0, BigInteger v1, BigInteger vm1, BigInteger v2, BigInteger vinf) {
+            BigInteger t2 = v2.subtract(vm1).divide(BigInteger.valueOf(3));
+            BigInteger tm1 = v1.subtract(vm1).shiftRight(1);
+            BigInteger t1 = v1.subtract(v0);
+            t2 = t2.subtract(t1).shiftRight(1);
+            t1 = t1.subtract(tm1).subtract(vinf);
+            t2 = t2.subtract(vinf.shiftLeft(1));
+            tm1 = tm1.subtract(t2);
+
+            return vinf.shiftLeft(shift).add(t2).shiftLeft(shift)
+                    .add(t1).shiftLeft(shift)
+                    .add(tm1).shiftLeft(shift)
+                    .add(v0);
+        }
+    }
+
+    /**
+     * Fork-join task for one Toom-3 level: the five point products are forked while they are
+     * above the parallel cutoff, and computed sequentially below it.
+     */
+    private static final class ToomTask extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final BigInteger x;
+        private final BigInteger y;
+
+        ToomTask(BigInteger x, BigInteger y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (limbCount(x) < PARALLEL_CUTOFF || limbCount(y) < PARALLEL_CUTOFF) {
+                return x.multiply(y);
+            }
+            Toom3 split = new Toom3(x, y);
+            ToomTask v1 = new ToomTask(split.p1, split.q1);
+            ToomTask vm1 = new ToomTask(split.pm1, split.qm1);
+            ToomTask v2 = new ToomTask(split.p2, split.q2);
+            ToomTask vinf = new ToomTask(split.a2, split.b2);
+            v1.fork();
+            vm1.fork();
+            v2.fork();
+            vinf.fork();
+            BigInteger v0 = new ToomTask(split.a0, split.b0).compute();
+            BigInteger r4 = vinf.join();
+            BigInteger r3 = v2.join();
+            BigInteger r2 = vm1.join();
+            BigInteger r1 = v1.join();
+            return split.combine(v0, r1, r2, r3, r4);
+        }
+    }
+
+    /**
+     * Returns a[off .. off+lowLen) + a[off+lowLen .. off+lowLen+highLen) with lowLen + 1 limbs.
+     * Requires highLen ≤ lowLen.
+     */
+    private static int[] addHalves(int[] a, int off, int lowLen, int highLen) {
+        int[] sum = new int[lowLen + 1];
+        long carry = 0;
+        for (int i = 0; i < lowLen; i++) {
+            long t = (a[off + i] & MASK) + (i < highLen ? a[off + lowLen + i] & MASK : 0) + carry;
+            sum[i] = (int) t;
+            carry = t >>> 32;
+        }
+        sum[lowLen] = (int) carry;
+        return sum;
+    }
+
+    /**
+     * out[off ..] += src[0 .. len), propagating the carry through the rest of out.
+     */
+    private static void addInto(int[] out, int off, int[] src, int len) {
+        long carry = 0;
+        int i = 0;
+        for (; i < len; i++) {
+            long t = (out[off + i] & MASK) + (src[i] & MASK) + carry;
+            out[off + i] = (int) t;
+            carry = t >>> 32;
+        }
+        for (int j = off + i; carry != 0 && j < out.length; j++) {
+            long t = (out[j] & MASK) + carry;
+            out[j] = (int) t;
+            carry = t >>> 32;
+        }
+    }
+
+    /**
+     * dst -= src, where dst ≥ src as integers.
+     */
+    private static void subtractFrom(int[] dst, int[] src) {
+        long borrow = 0;
+        int i = 0;
+        for (; i < src.length; i++) {
+            long t = (dst[i] & MASK) - (src[i] & MASK) - borrow;
+            dst[i] = (int) t;
+            borrow = (t >> 32) & 1;
+        }
+        for (; borrow != 0 && i < dst.length; i++) {
+            long t = (dst[i] & MASK) - borrow;
+            dst[i] = (int) t;
+            borrow = (t >> 32) & 1;
+        }
+    }
+
+    /**
+     * @return Number of 32-bit limbs in the magnitude of x
+     */
+    static int limbCount(BigInteger x) {
+        return (x.bitLength() + 31) >>> 5;
+    }
+
+    /**
+     * Splits a non-negative BigInteger into n little-endian 32-bit limbs.
+     */
+    static int[] toLimbs(BigInteger x, int n) {
+        int[] limbs = new int[n];
+        byte[] bytes = x.toByteArray();
+        for (int i = 0; i < bytes.length && i < 4 * n; i++) {
+            limbs[i >>> 2] |= (bytes[bytes.length - 1 - i] & 0xFF) << (8 * (i & 3));
+        }
+        return limbs;
+    }
+
+    /**
+     * Assembles a non-negative BigInteger from little-endian 32-bit limbs.
+     */
+    static BigInteger fromLimbs(int[] limbs) {
+        byte[] bytes = new byte[4 * limbs.length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[bytes.length - 1 - i] = (byte) (limbs[i >>> 2] >>> (8 * (i & 3)));
+        }
+        return new BigInteger(1, bytes);
+    }
+}
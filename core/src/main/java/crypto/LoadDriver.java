@@ -0,0 +1,403 @@
+package crypto;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A load and soak driver: runs a weighted mix of workloads on many threads for a fixed
+ * time and reports throughput, latency percentiles, GC activity and allocation per operation.
+ *
+ * In closed-loop mode (the default) every thread starts its next operation as soon as the
+ * previous one returns. With a target rate, every thread follows a fixed schedule of
+ * start times. Latency is measured from the scheduled start, not the actual one, so time
+ * spent queued behind a slow operation is counted (no coordinated omission). Latencies go
+ * into one lock-free {@link LatencyHistogram} per workload. A warm-up phase runs first and
+ * its results are discarded.
+ *
+ * Usage:
+ * <pre>
+ *   java -cp core/target/classes crypto.LoadDriver [options]
+ *     --threads=N        worker threads (default: number of processors)
+ *     --virtual          use virtual threads when the JVM has them (JDK 21+)
+ *     --duration=S       measured seconds (default 30)
+ *     --warmup=S         warm-up seconds (default 5)
+ *     --rate=R           target operations per second over all threads; 0 = closed loop (default)
+ *     --bits=B           RSA modulus and DH group size (default 2048)
+ *     --mix=W:n,...      workload weights (default encrypt:20,decrypt:20,dh:10,primality:5,keygen:1)
+ * </pre>
+ * Workloads: keygen (RSA.generateRSAKeys), encrypt, decrypt (CRT with a prepared key),
+ * dh (a full handshake side: private key, public key, peer validation, shared key) and
+ * primality (Miller-Rabin on a mix of primes and random odd numbers).
+ */
+public class LoadDriver {
+
+    /**
+     * One kind of operation the driver can run.
+     */
+    enum Workload {
+        KEYGEN("keygen") {
+            @Override
+            Object run(Fixture f, Random random) {
+                return RSA.generateRSAKeys(f.bits, 40);
+            }
+        },
+        ENCRYPT("encrypt") {
+            @Override
+            Object run(Fixture f, Random random) {
+                return f.publicKey.encrypt(f.messages[random.nextInt(f.messages.length)]);
+            }
+        },
+        DECRYPT("decrypt") {
+            @Override
+            Object run(Fixture f, Random random) {
+                return f.privateKey.decrypt(f.ciphertexts[random.nextInt(f.ciphertexts.length)]);
+            }
+        },
+        DH("dh") {
+            @Override
+            Object run(Fixture f, Random random) {
+                BigInteger x = DiffieHelman.generatePrivateKey(f.group.getQ());
+                BigInteger y = DiffieHelman.computePublicKey(f.group.getG(), x, f.group.getP());
+                if (!DiffieHelman.isValidPublicKey(f.peerPublicKey, f.group.getP(), f.group.getQ())) {
+                    throw new IllegalStateException("Peer public key rejected");
+                }
+                return DiffieHelman.computeSharedKey(f.peerPublicKey, x, f.group.getP()).xor(y);
+            }
+        },
+        PRIMALITY("primality") {
+            @Override
+            Object run(Fixture f, Random random) {
+                BigInteger n = f.candidates[random.nextInt(f.candidates.length)];
+                return PrimalityTest.MILLER_RABIN.isProbablePrime(n, 40);
+            }
+        };
+
+        final String label;
+
+        Workload(String label) {
+            this.label = label;
+        }
+
+        abstract Object run(Fixture f, Random random);
+
+        static Workload of(String label) {
+            for (Workload w : values()) {
+                if (w.label.equals(label)) {
+                    return w;
+                }
+            }
+            throw new IllegalArgumentException("Unknown workload: " + label);
+        }
+    }
+
+    /**
+     * Keys and inputs prepared once before the run, shared read-only by all threads.
+     */
+    static final class Fixture {
+
+        final int bits;
+        final RSAPrivateKey privateKey;
+        final RSAPublicKey publicKey;
+        final BigInteger[] messages = new BigInteger[64];
+        final BigInteger[] ciphertexts = new BigInteger[64];
+        final DHGroup group;
+        final BigInteger peerPublicKey;
+        final BigInteger[] candidates = new BigInteger[64];
+
+        Fixture(int bits) {
+            Random random = Randomness.keyMaterial();
+            this.bits = bits;
+            privateKey = RSAPrivateKey.fromKeyPair(RSA.generateRSAKeys(bits, 40));
+            publicKey = privateKey.getPublicKey();
+            for (int i = 0; i < messages.length; i++) {
+                messages[i] = new BigInteger(privateKey.getModulus().bitLength() - 1, random);
+                ciphertexts[i] = publicKey.encrypt(messages[i]);
+            }
+            // Every DHGroup has a generator of order q, so honest peer keys pass validation
+            group = new DHParameterStore().getOrGenerate(bits, 40);
+            peerPublicKey = DiffieHelman.computePublicKey(group.getG(),
+                    DiffieHelman.generatePrivateKey(group.getQ()), group.getP());
+            if (!DiffieHelman.isValidPublicKey(peerPublicKey, group.getP(), group.getQ())) {
+                throw new IllegalStateException("Peer public key of " + group + " is not in the order-q subgroup");
+            }
+            // Half primes (the expensive case: every round runs), half random odd numbers
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = i % 2 == 0
+                        ? Primes.sampleSievedPrime(bits / 2, 40)
+                        : new BigInteger(bits / 2, random).setBit(bits / 2 - 1).setBit(0);
+            }
+        }
+    }
+
+    /**
+     * Results of one workload within a phase.
+     */
+    static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder allocated = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * Parsed command line.
+     */
+    static final class Options {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean virtual;
+        long durationSeconds = 30;
+        long warmupSeconds = 5;
+        double rate;
+        int bits = 2048;
+        final Map<Workload, Integer> mix = new EnumMap<>(Workload.class);
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            String mix = "encrypt:20,decrypt:20,dh:10,primality:5,keygen:1";
+            for (String arg : args) {
+                String[] kv = arg.split("=", 2);
+                String value = kv.length > 1 ? kv[1] : "";
+                switch (kv[0]) {
+                    case "--threads": o.threads = Integer.parseInt(value); break;
+                    case "--virtual": o.virtual = true; break;
+                    case "--duration": o.durationSeconds = Long.parseLong(value); break;
+                    case "--warmup": o.warmupSeconds = Long.parseLong(value); break;
+                    case "--rate": o.rate = Double.parseDouble(value); break;
+                    case "--bits": o.bits = Integer.parseInt(value); break;
+                    case "--mix": mix = value; break;
+                    default: throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            for (String entry : mix.split(",")) {
+                String[] kv = entry.trim().split(":");
+                int weight = kv.length > 1 ? Integer.parseInt(kv[1]) : 1;
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Weights must be non-negative");
+                }
+                if (weight > 0) {
+                    o.mix.put(Workload.of(kv[0]), weight);
+                }
+            }
+            if (o.threads < 1 || o.durationSeconds < 1 || o.warmupSeconds < 0 || o.rate < 0 || o.mix.isEmpty()) {
+                throw new IllegalArgumentException("Invalid options");
+            }
+            return o;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    /** Consumes results so the JIT cannot drop the work. */
+    private static volatile int sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println("Usage: LoadDriver [--threads=N] [--virtual] [--duration=S] [--warmup=S] "
+                    + "[--rate=R] [--bits=B] [--mix=keygen:1,encrypt:20,decrypt:20,dh:10,primality:5]");
+            System.exit(2);
+            return;
+        }
+
+        ThreadFactory factory = threadFactory(options.virtual);
+        System.out.printf("Preparing %d-bit fixtures...%n", options.bits);
+        Fixture fixture = new Fixture(options.bits);
+        System.out.printf("%d %s threads, %s, mix %s%n", options.threads,
+                options.virtual && factory != null ? "virtual" : "platform",
+                options.rate > 0 ? "target " + options.rate + " ops/s" : "closed loop", options.mix);
+
+        if (options.warmupSeconds > 0) {
+            runPhase(options, fixture, factory, options.warmupSeconds);
+        }
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long start = System.nanoTime();
+        Map<Workload, Stats> stats = runPhase(options, fixture, factory, options.durationSeconds);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report(stats, seconds, gcCount() - gcCount, gcMillis() - gcMillis);
+    }
+
+    /**
+     * Runs every thread for the given time and collects the per-workload results.
+     */
+    static Map<Workload, Stats> runPhase(Options options, Fixture fixture, ThreadFactory factory, long seconds)
+            throws InterruptedException {
+        Map<Workload, Stats> stats = new EnumMap<>(Workload.class);
+        for (Workload w : options.mix.keySet()) {
+            stats.put(w, new Stats());
+        }
+        Workload[] picks = weighted(options.mix);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        // Each thread runs rate/threads operations per second, threads staggered across one interval
+        long interval = options.rate > 0 ? (long) (1e9 * options.threads / options.rate) : 0;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < options.threads; t++) {
+            long first = start + (interval * t) / options.threads;
+            Runnable worker = () -> work(fixture, stats, picks, first, interval, end);
+            Thread thread = factory != null ? factory.newThread(worker) : new Thread(worker, "load-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return stats;
+    }
+
+    private static void work(Fixture fixture, Map<Workload, Stats> stats, Workload[] picks,
+                             long first, long interval, long end) {
+        Random random = Randomness.fast();
+        long next = first;
+        int local = 0;
+        while (true) {
+            long intended;
+            if (interval > 0) {
+                intended = next;
+                next += interval;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= end) {
+                break;
+            }
+
+            Workload w = picks[random.nextInt(picks.length)];
+            Stats s = stats.get(w);
+            long allocatedBefore = allocatedBytes();
+            try {
+                local += w.run(fixture, random).hashCode();
+            } catch (RuntimeException ex) {
+                s.errors.increment();
+                continue;
+            }
+            long done = System.nanoTime();
+            long allocatedAfter = allocatedBytes();
+            s.latency.record(done - intended);
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                s.allocated.add(allocatedAfter - allocatedBefore);
+            }
+        }
+        sink += local;
+    }
+
+    private static void report(Map<Workload, Stats> stats, double seconds, long gcCount, long gcMillis) {
+        System.out.printf(Locale.ROOT, "%-10s %9s %10s %9s %9s %9s %9s %12s %7s%n",
+                "workload", "ops", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "alloc/op", "errors");
+        long totalOps = 0;
+        long totalAllocated = 0;
+        for (Map.Entry<Workload, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            long ops = s.latency.count();
+            totalOps += ops;
+            totalAllocated += s.allocated.sum();
+            System.out.printf(Locale.ROOT, "%-10s %9d %10.1f %9.3f %9.3f %9.3f %9.3f %12s %7d%n",
+                    entry.getKey().label, ops, ops / seconds,
+                    millis(s.latency.percentile(0.50)), millis(s.latency.percentile(0.99)),
+                    millis(s.latency.percentile(0.999)), millis(s.latency.max()),
+                    ops == 0 ? "-" : bytes(s.allocated.sum() / ops), s.errors.sum());
+        }
+        System.out.printf(Locale.ROOT, "total      %9d %10.1f over %.1f s, %s allocated per op%n",
+                totalOps, totalOps / seconds, seconds, totalOps == 0 ? "-" : bytes(totalAllocated / totalOps));
+        System.out.printf(Locale.ROOT, "GC: %d collections, %d ms (%.2f%% of wall time)%n",
+                gcCount, gcMillis, gcMillis / (seconds * 10));
+    }
+
+    /**
+     * Expands the weights into a table indexed by a uniform random number.
+     */
+    private static Workload[] weighted(Map<Workload, Integer> mix) {
+        List<Workload> table = new ArrayList<>();
+        for (Map.Entry<Workload, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                table.add(entry.getKey());
+            }
+        }
+        return table.toArray(new Workload[0]);
+    }
+
+    /**
+     * Looks up Thread.ofVirtual().factory() by reflection, so the driver still builds and
+     * runs on JDKs without virtual threads.
+     *
+     * @return The virtual thread factory, or null for platform threads
+     */
+    private static ThreadFactory threadFactory(boolean virtual) {
+        if (!virtual) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            System.err.println("Virtual threads are not available on this JVM; using platform threads");
+            return null;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported()) {
+                sun.setThreadAllocatedMemoryEnabled(true);
+                return sun;
+            }
+        }
+        return null;
+    }
+
+    /** @return Bytes allocated so far by the current thread, or -1 if unknown */
+    private static long allocatedBytes() {
+        return ALLOCATION != null ? ALLOCATION.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes >= 1 << 20) {
+            return String.format(Locale.ROOT, "%.1f MB", bytes / 1048576.0);
+        }
+        if (bytes >= 1 << 10) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return bytes + " B";
+    }
+}
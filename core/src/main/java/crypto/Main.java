@@ -1,5 +1,11 @@
+package crypto;
+
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main {
     public static void main(String[] args) {
@@ -74,9 +80,9 @@ public class Main {
         System.out.println("------------------------- \n HERE IS A PRIME SAMPLING RUNNING EXAMPLE :) \n -------------------------");
         for (int i = 0; i < 10; i++) {
             int attempts = 0;
-            BigInteger prime = new BigInteger(bitLength, new Random()).setBit(bitLength - 1).setBit(0); // Ensure odd and correct length
-            while (!Primes.isProbablePrime(prime, accuracy)) {
-                prime = new BigInteger(bitLength, new Random()).setBit(bitLength - 1).setBit(0); // Ensure odd and correct length
+            BigInteger prime = new BigInteger(bitLength, Randomness.keyMaterial()).setBit(bitLength - 1).setBit(0); // Ensure odd and correct length
+            while (!Primes.isProbablePrime(prime, accuracy, PrimalityTest.BAILLIE_PSW)) {
+                prime = new BigInteger(bitLength, Randomness.keyMaterial()).setBit(bitLength - 1).setBit(0); // Ensure odd and correct length
                 attempts++;
             }
             System.out.println("Prime " + (i + 1) + ": " + prime);
@@ -98,14 +104,12 @@ public class Main {
         //int bitLength = 512;
         int k = 40;
 
-        // Generate the parameters
-        BigInteger q1 = Primes.samplePrime(bitLength - 1, k);
-        BigInteger p1 = q1.multiply(BigInteger.TWO).add(BigInteger.ONE);
-        while (!Primes.isProbablePrime(p1, k)) {
-            q1 = Primes.samplePrime(bitLength - 1, k);
-            p1 = q1.multiply(BigInteger.TWO).add(BigInteger.ONE);
-        }
-        BigInteger g = DiffieHelman.findGenerator(q1, p1);
+        // Fetch the parameters from the store, which generates a group if it has none of this size
+        DHParameterStore parameters = new DHParameterStore();
+        DHGroup group = parameters.getOrGenerate(bitLength, k);
+        BigInteger p1 = group.getP();
+        BigInteger q1 = group.getQ();
+        BigInteger g = group.getG();
 
         // Alice's keys
         BigInteger a1 = DiffieHelman.generatePrivateKey(q1);
@@ -160,6 +164,23 @@ public class Main {
         System.out.println("Decrypted text: " + decryptedText);
 
         System.out.println("Decryption successful: " + plaintext.equals(decryptedText));
+
+        // Batch decryption with a precomputed CRT private key
+        RSAPrivateKey privateKey = RSAPrivateKey.fromKeyPair(keyPair);
+        List<BigInteger> plaintexts = new ArrayList<>();
+        List<BigInteger> ciphertexts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            BigInteger m = Arithmetic.getRandomBigInteger(N);
+            plaintexts.add(m);
+            ciphertexts.add(RSA.encryptRSA(m, e, N));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<BigInteger> decrypted = privateKey.decryptAll(ciphertexts, executor);
+            System.out.println("Batch decryption successful: " + plaintexts.equals(decrypted));
+        } finally {
+            executor.shutdown();
+        }
         }
 
 
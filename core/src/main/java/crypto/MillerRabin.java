@@ -1,3 +1,5 @@
+package crypto;
+
 import java.math.BigInteger;
 
 /**
@@ -21,11 +23,13 @@ public class MillerRabin {
     * @return true if the number passes this round of testing, false if n is definitely composite
     */
    public static boolean millerRabinTest(BigInteger a, int r, BigInteger u, BigInteger n) {
+       CryptoMetrics.increment(CryptoMetrics.Counter.MILLER_RABIN_ROUNDS);
        // Compute x = a^u mod n
        BigInteger x = a.modPow(u, n);
-       
+       BigInteger nMinusOne = n.subtract(BigInteger.ONE);
+
        // First check: if x ≡ ±1 (mod n), n passes this round
-       if (x.equals(BigInteger.ONE) || x.equals(n.subtract(BigInteger.ONE))) {
+       if (x.equals(BigInteger.ONE) || x.equals(nMinusOne)) {
            return true;
        }
 
@@ -33,10 +37,10 @@ public class MillerRabin {
        // If we ever get -1 mod n, n passes this round
        for (int i = 0; i < r - 1; i++) {
            // x = x^2 mod n
-           x = x.modPow(BigInteger.TWO, n);
-           
+           x = x.multiply(x).mod(n);
+
            // If x ≡ -1 (mod n), n passes this round
-           if (x.equals(n.subtract(BigInteger.ONE))) {
+           if (x.equals(nMinusOne)) {
                return true;
            }
        }
@@ -45,4 +49,4 @@ public class MillerRabin {
        // Therefore n is definitely composite
        return false;
    }
-}
\ No newline at end of file
+}
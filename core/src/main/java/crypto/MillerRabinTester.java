@@ -0,0 +1,115 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Runs Miller-Rabin rounds against one fixed candidate n.
+ *
+ * Everything that depends only on n is computed once in the constructor: n-1, the
+ * decomposition n-1 = u * 2^r (with a single shift), and a Montgomery context for n together
+ * with the Montgomery forms of 1 and n-1. Each round then costs one exponentiation a^u mod n
+ * plus at most r-1 Montgomery squarings, each a single multiply-and-reduce compared directly
+ * against the precomputed -1.
+ *
+ * A tester keeps scratch space for the squarings, so it must not be shared between threads.
+ */
+public class MillerRabinTester {
+
+    private final BigInteger n;
+    private final BigInteger nMinusOne;
+    private final BigInteger u;
+    private final int r;
+    private final MontgomeryContext context;
+    private final long[] one;
+    private final long[] minusOne;
+    private final long[] x;
+
+    /**
+     * Precomputes the per-candidate state for n.
+     *
+     * @param n The number to test (must be odd and at least 3)
+     * @throws IllegalArgumentException if n is even or smaller than 3
+     */
+    public MillerRabinTester(BigInteger n) {
+        if (n.compareTo(BigInteger.valueOf(3)) < 0 || !n.testBit(0)) {
+            throw new IllegalArgumentException("Candidate must be odd and at least 3");
+        }
+        this.n = n;
+        this.nMinusOne = n.subtract(BigInteger.ONE);
+        this.r = nMinusOne.getLowestSetBit();
+        this.u = nMinusOne.shiftRight(r);
+        this.context = new MontgomeryContext(n);
+        this.one = context.newElement();
+        this.minusOne = context.newElement();
+        this.x = context.newElement();
+        context.setOne(one);
+        context.toMontgomery(nMinusOne, minusOne);
+    }
+
+    /**
+     * Performs one round of the Miller-Rabin test with base a.
+     *
+     * @param a The base number to test with, should be in range [2, n-2]
+     * @return true if n passes this round, false if n is definitely composite
+     */
+    public boolean test(BigInteger a) {
+        CryptoMetrics.increment(CryptoMetrics.Counter.MILLER_RABIN_ROUNDS);
+        // The exponentiation uses BigInteger.modPow, which is intrinsified by the JVM
+        BigInteger y = a.modPow(u, n);
+        if (y.equals(BigInteger.ONE) || y.equals(nMinusOne)) {
+            return true;
+        }
+
+        context.toMontgomery(y, x);
+        for (int i = 1; i < r; i++) {
+            context.square(x, x);
+            if (Arrays.equals(x, minusOne)) {
+                return true;
+            }
+            // A non-trivial square root of 1 proves n composite
+            if (Arrays.equals(x, one)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs k rounds of the Miller-Rabin test with random bases in [2, n-2].
+     * The probability of a composite number passing is at most 4^(-k).
+     *
+     * @param k The number of rounds of testing to perform
+     * @param random Source of the random bases
+     * @return true if n is probably prime, false if n is definitely composite
+     */
+    public boolean test(int k, Random random) {
+        // [2, n-2] is empty for n = 3, which is prime
+        if (n.bitLength() == 2) {
+            return true;
+        }
+        for (int i = 0; i < k; i++) {
+            BigInteger a = Arithmetic.randomBetween(BigInteger.TWO, nMinusOne, random);
+            if (!test(a)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return The candidate n */
+    public BigInteger getCandidate() {
+        return n;
+    }
+
+    /** @return The exponent r such that n-1 = u * 2^r */
+    public int getR() {
+        return r;
+    }
+
+    /** @return The odd part u of n-1 */
+    public BigInteger getU() {
+        return u;
+    }
+}
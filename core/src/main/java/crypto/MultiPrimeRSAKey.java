@@ -0,0 +1,214 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Immutable multi-prime RSA private key (RFC 8017, section 3.2) with u = 2 to 4 prime
+ * factors r_1, ..., r_u and their CRT values precomputed.
+ *
+ * A decryption computes m_i = c^(d_i) mod r_i for every prime, where d_i = d mod (r_i - 1),
+ * and recombines the residues with Garner's algorithm:
+ * m = m_1, then for i = 2..u, m += R_(i-1) * ((m_i - m) * t_i mod r_i), where R_(i-1) is the
+ * product of the first i-1 primes and t_i = R_(i-1)^(-1) mod r_i. For two primes this is the
+ * usual qInv recombination with the roles of p and q swapped.
+ *
+ * The u exponentiations are independent, so {@link #decrypt(BigInteger, Executor)} runs
+ * them concurrently and only the short recombination is sequential. With three primes each
+ * exponentiation works on a third of the modulus, about (2/3)^3 of the work of a two-prime
+ * CRT half.
+ */
+public class MultiPrimeRSAKey {
+
+    /** Largest number of prime factors supported; RFC 8017 leaves the bound to the application. */
+    public static final int MAX_PRIMES = 4;
+
+    private final BigInteger N;
+    private final BigInteger e;
+    private final BigInteger d;
+    private final BigInteger[] primes;
+    private final BigInteger[] exponents;     // d_i = d mod (r_i - 1)
+    private final BigInteger[] coefficients;  // t_i = (r_1 * ... * r_(i-1))^(-1) mod r_i, t_1 unused
+    private final BigInteger[] products;      // R_i = r_1 * ... * r_i
+
+    /**
+     * Builds a private key from the prime factors and exponents, precomputing the CRT values.
+     *
+     * @param e Public exponent
+     * @param d Private exponent
+     * @param primes The distinct prime factors of N, 2 to {@link #MAX_PRIMES} of them
+     * @throws IllegalArgumentException if the number of primes is out of range or two primes are equal
+     */
+    public MultiPrimeRSAKey(BigInteger e, BigInteger d, BigInteger... primes) {
+        if (primes.length < 2 || primes.length > MAX_PRIMES) {
+            throw new IllegalArgumentException("Number of primes must be in [2, " + MAX_PRIMES + "]");
+        }
+        int u = primes.length;
+        this.e = e;
+        this.d = d;
+        this.primes = primes.clone();
+        this.exponents = new BigInteger[u];
+        this.coefficients = new BigInteger[u];
+        this.products = new BigInteger[u];
+
+        BigInteger product = BigInteger.ONE;
+        for (int i = 0; i < u; i++) {
+            BigInteger r = this.primes[i];
+            exponents[i] = d.mod(r.subtract(BigInteger.ONE));
+            if (i > 0) {
+                try {
+                    coefficients[i] = product.modInverse(r);
+                } catch (ArithmeticException ex) {
+                    throw new IllegalArgumentException("Prime factors must be distinct", ex);
+                }
+            }
+            product = product.multiply(r);
+            products[i] = product;
+        }
+        this.N = product;
+    }
+
+    /**
+     * Builds a private key from the output of {@link RSA#generateMultiPrimeRSAKeys(int, int, int)}
+     * (or of {@link RSA#generateRSAKeys(int, int)}, as a two-prime key).
+     *
+     * @param keys BigInteger array containing [N, e, d, r_1, ..., r_u]
+     * @return The private key with its CRT values precomputed
+     * @throws IllegalArgumentException if the array is malformed or N is not the product of the primes
+     */
+    public static MultiPrimeRSAKey fromKeyPair(BigInteger[] keys) {
+        if (keys == null || keys.length < 5 || keys.length > 3 + MAX_PRIMES) {
+            throw new IllegalArgumentException("Key array must contain [N, e, d, r_1, ..., r_u]");
+        }
+        BigInteger[] primes = new BigInteger[keys.length - 3];
+        System.arraycopy(keys, 3, primes, 0, primes.length);
+        MultiPrimeRSAKey key = new MultiPrimeRSAKey(keys[1], keys[2], primes);
+        if (!key.N.equals(keys[0])) {
+            throw new IllegalArgumentException("Modulus N does not match the product of the primes");
+        }
+        return key;
+    }
+
+    /**
+     * Decrypts a single ciphertext, computing the per-prime exponentiations one after the other.
+     *
+     * @param ciphertext The encrypted message
+     * @return Decrypted message
+     * @throws IllegalArgumentException if ciphertext is negative or ciphertext ≥ N
+     */
+    public BigInteger decrypt(BigInteger ciphertext) {
+        checkRange(ciphertext);
+        long start = CryptoMetrics.start();
+        BigInteger[] residues = new BigInteger[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            residues[i] = residue(ciphertext, i);
+        }
+        BigInteger message = recombine(residues);
+        CryptoMetrics.stop(CryptoMetrics.Operation.DECRYPT, start);
+        return message;
+    }
+
+    /**
+     * Decrypts a single ciphertext, running the per-prime exponentiations concurrently on the
+     * executor; the calling thread computes the first one itself.
+     *
+     * @param ciphertext The encrypted message
+     * @param executor Executor that runs the exponentiations for r_2, ..., r_u
+     * @return Decrypted message
+     * @throws IllegalArgumentException if ciphertext is negative or ciphertext ≥ N
+     */
+    public BigInteger decrypt(BigInteger ciphertext, Executor executor) {
+        checkRange(ciphertext);
+        long start = CryptoMetrics.start();
+        BigInteger[] residues = new BigInteger[primes.length];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[primes.length - 1];
+        for (int i = 1; i < primes.length; i++) {
+            final int index = i;
+            futures[i - 1] = CompletableFuture.runAsync(() -> residues[index] = residue(ciphertext, index), executor);
+        }
+        residues[0] = residue(ciphertext, 0);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+        BigInteger message = recombine(residues);
+        CryptoMetrics.stop(CryptoMetrics.Operation.DECRYPT, start);
+        return message;
+    }
+
+    private void checkRange(BigInteger ciphertext) {
+        if (ciphertext.signum() < 0 || ciphertext.compareTo(N) >= 0) {
+            throw new IllegalArgumentException("Ciphertext must be in the range [0, N)");
+        }
+    }
+
+    private BigInteger residue(BigInteger ciphertext, int i) {
+        return ciphertext.mod(primes[i]).modPow(exponents[i], primes[i]);
+    }
+
+    /**
+     * Garner's algorithm: lifts the residues modulo r_1, ..., r_u to the message modulo N.
+     */
+    private BigInteger recombine(BigInteger[] residues) {
+        BigInteger m = residues[0];
+        for (int i = 1; i < primes.length; i++) {
+            BigInteger h = residues[i].subtract(m).multiply(coefficients[i]).mod(primes[i]);
+            m = m.add(products[i - 1].multiply(h));
+        }
+        return m;
+    }
+
+    /** @return The modulus N */
+    public BigInteger getModulus() {
+        return N;
+    }
+
+    /** @return The public exponent e */
+    public BigInteger getPublicExponent() {
+        return e;
+    }
+
+    /** @return The private exponent d */
+    public BigInteger getPrivateExponent() {
+        return d;
+    }
+
+    /** @return Number of prime factors u */
+    public int primeCount() {
+        return primes.length;
+    }
+
+    /**
+     * @param i Index of the prime, in [0, u)
+     * @return The prime factor r_(i+1)
+     */
+    public BigInteger getPrime(int i) {
+        return primes[i];
+    }
+
+    /**
+     * @param i Index of the prime, in [0, u)
+     * @return The CRT exponent d mod (r_(i+1) - 1)
+     */
+    public BigInteger getExponent(int i) {
+        return exponents[i];
+    }
+
+    /**
+     * @param i Index of the prime, in [1, u)
+     * @return The Garner coefficient (r_1 * ... * r_i)^(-1) mod r_(i+1)
+     * @throws IllegalArgumentException if i is 0
+     */
+    public BigInteger getCoefficient(int i) {
+        if (i < 1) {
+            throw new IllegalArgumentException("The first prime has no coefficient");
+        }
+        return coefficients[i];
+    }
+}
@@ -0,0 +1,82 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Splits one prime search across several workers running on a fork-join pool.
+ * Every worker runs an independent sieved interval search from its own random starting point
+ * (see {@link Primes#sampleSievedPrime(int, int)}), so each candidate it returns has exactly the
+ * distribution and bit length of the sequential search. The first worker to find a prime
+ * publishes it, and the others notice before their next primality test and stop.
+ */
+public class ParallelPrimes {
+
+    /**
+     * Generates a random prime of the specified bit length using several concurrent workers.
+     *
+     * @param bitLength The desired length of the prime number in bits
+     * @param k The number of rounds for the Miller-Rabin primality test
+     * @param workers Number of concurrent search workers (at least 1)
+     * @param pool Pool that runs the search workers
+     * @return A probable prime number of the specified bit length
+     * @throws IllegalArgumentException if workers is not positive
+     */
+    public static BigInteger samplePrime(int bitLength, int k, int workers, ForkJoinPool pool) {
+        return samplePrime(bitLength, k, PrimalityTest.MILLER_RABIN, workers, pool);
+    }
+
+    /**
+     * Generates a random prime of the specified bit length using several concurrent workers,
+     * confirming the sieve survivors with the given primality strategy.
+     *
+     * @param bitLength The desired length of the prime number in bits
+     * @param k The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @param workers Number of concurrent search workers (at least 1)
+     * @param pool Pool that runs the search workers
+     * @return A probable prime number of the specified bit length
+     * @throws IllegalArgumentException if workers is not positive
+     */
+    public static BigInteger samplePrime(int bitLength, int k, PrimalityTest test, int workers, ForkJoinPool pool) {
+        return samplePrime(bitLength, 1, k, test, workers, pool);
+    }
+
+    /**
+     * Runs the parallel search over candidates whose topBits most significant bits are all set
+     * (see {@link Primes#sampleSievedPrime(int, int, int, PrimalityTest, java.util.function.BooleanSupplier)}).
+     */
+    static BigInteger samplePrime(int bitLength, int topBits, int k, PrimalityTest test, int workers, ForkJoinPool pool) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive");
+        }
+
+        CompletableFuture<BigInteger> result = new CompletableFuture<>();
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> {
+                try {
+                    BigInteger prime = Primes.sampleSievedPrime(bitLength, topBits, k, test, result::isDone);
+                    if (prime != null) {
+                        result.complete(prime);
+                    }
+                } catch (RuntimeException | Error ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+        return result.join();
+    }
+
+    /**
+     * Generates a random prime of the specified bit length with one worker per core
+     * on the common fork-join pool.
+     *
+     * @param bitLength The desired length of the prime number in bits
+     * @param k The number of rounds for the Miller-Rabin primality test
+     * @return A probable prime number of the specified bit length
+     */
+    public static BigInteger samplePrime(int bitLength, int k) {
+        return samplePrime(bitLength, k, Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,75 @@
+package crypto;
+
+import java.math.BigInteger;
+
+/**
+ * Selectable strategy for confirming that a candidate is prime.
+ *
+ * Both strategies decide numbers below 2^64 exactly with {@link DeterministicMillerRabin}.
+ */
+public enum PrimalityTest {
+
+    /**
+     * k rounds of Miller-Rabin with random bases; a composite passes with probability at
+     * most 4^(-k).
+     */
+    MILLER_RABIN {
+        @Override
+        boolean test(BigInteger n, int k) {
+            return new MillerRabinTester(n).test(k, Randomness.fast());
+        }
+    },
+
+    /**
+     * One base-2 strong test plus a strong Lucas test (see {@link BailliePSW}); k is ignored.
+     */
+    BAILLIE_PSW {
+        @Override
+        boolean test(BigInteger n, int k) {
+            return BailliePSW.isProbablePrime(n);
+        }
+    };
+
+    /**
+     * Tests if n is probably prime with this strategy.
+     *
+     * @param n The number to test for primality
+     * @param k The number of rounds, for strategies that use rounds
+     * @return true if n is probably prime, false if n is definitely composite
+     */
+    public boolean isProbablePrime(BigInteger n, int k) {
+        if (!CryptoMetrics.isEnabled()) {
+            return decide(n, k);
+        }
+        PrimalityTestEvent event = new PrimalityTestEvent();
+        event.begin();
+        boolean prime = decide(n, k);
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = name();
+            event.bitLength = n.bitLength();
+            event.rounds = this == MILLER_RABIN ? k : 1;
+            event.probablePrime = prime;
+            event.commit();
+        }
+        return prime;
+    }
+
+    private boolean decide(BigInteger n, int k) {
+        if (n.signum() <= 0) {
+            return false;
+        }
+        if (n.bitLength() <= 64) {
+            return DeterministicMillerRabin.isPrime(n.longValue());
+        }
+        if (!n.testBit(0)) {
+            return false;
+        }
+        return test(n, k);
+    }
+
+    /**
+     * Tests an odd n of more than 64 bits.
+     */
+    abstract boolean test(BigInteger n, int k);
+}
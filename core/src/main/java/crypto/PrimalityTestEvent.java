@@ -0,0 +1,30 @@
+package crypto;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one full primality test through {@link PrimalityTest}, emitted while
+ * {@link CryptoMetrics} is enabled.
+ */
+@Name("crypto.PrimalityTest")
+@Label("Primality Test")
+@Category("Crypto")
+@Description("Full primality test of one candidate")
+class PrimalityTestEvent extends Event {
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Bit Length")
+    int bitLength;
+
+    @Label("Rounds")
+    int rounds;
+
+    @Label("Probable Prime")
+    boolean probablePrime;
+}
@@ -0,0 +1,50 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.function.Supplier;
+
+/**
+ * Background pool of pre-generated primes or safe primes of one bit length.
+ * See {@link BackgroundPool} for the refill policy and the metrics it exposes.
+ */
+public class PrimePool extends BackgroundPool<BigInteger> {
+
+    private PrimePool(String name, Supplier<BigInteger> generator, int capacity, int lowWater, int threads) {
+        super(name, generator, capacity, lowWater, threads);
+    }
+
+    /**
+     * Creates a pool of random primes, generated with {@link Primes#sampleSievedPrime(int, int)}.
+     *
+     * @param bitLength Bit length of each prime
+     * @param k The number of rounds for the Miller-Rabin primality test
+     * @param capacity Maximum number of primes kept in stock
+     * @param lowWater Stock level at or below which the pool refills
+     * @param threads Number of background worker threads
+     * @return The started pool
+     */
+    public static PrimePool primes(int bitLength, int k, int capacity, int lowWater, int threads) {
+        PrimePool pool = new PrimePool("prime-pool-" + bitLength, () -> Primes.sampleSievedPrime(bitLength, k),
+                capacity, lowWater, threads);
+        pool.start();
+        return pool;
+    }
+
+    /**
+     * Creates a pool of random safe primes p = 2q + 1, generated with the combined q and 2q + 1
+     * sieve of {@link Primes#sampleSafePrime(int, int)}. The subgroup order is q = (p - 1) / 2.
+     *
+     * @param bitLength Bit length of each safe prime p
+     * @param k The number of rounds for the Miller-Rabin primality test
+     * @param capacity Maximum number of safe primes kept in stock
+     * @param lowWater Stock level at or below which the pool refills
+     * @param threads Number of background worker threads
+     * @return The started pool
+     */
+    public static PrimePool safePrimes(int bitLength, int k, int capacity, int lowWater, int threads) {
+        PrimePool pool = new PrimePool("safe-prime-pool-" + bitLength, () -> Primes.sampleSafePrime(bitLength, k),
+                capacity, lowWater, threads);
+        pool.start();
+        return pool;
+    }
+}
@@ -0,0 +1,283 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A utility class for generating and testing prime numbers.
+ * This class implements probabilistic primality testing using the Miller-Rabin algorithm.
+ */
+public class Primes {
+
+    /** Number of small odd primes that sieve candidates before any Miller-Rabin round. */
+    private static final int SMALL_PRIME_COUNT = 2048;
+
+    /** The first SMALL_PRIME_COUNT odd primes: 3, 5, 7, ... */
+    static final int[] SMALL_PRIMES = oddPrimes(SMALL_PRIME_COUNT);
+
+    /** Number of odd candidates covered by one sieve window. */
+    private static final int SIEVE_WINDOW = 1024;
+
+    /**
+     * Generates a random prime number of specified bit length.
+     * The generated number is tested for primality using the Miller-Rabin test.
+     * 
+     * @param bitLength The desired length of the prime number in bits
+     * @param k The number of rounds for the Miller-Rabin primality test
+     *         (higher k means higher accuracy but slower performance)
+     * @return A probable prime number of the specified bit length
+     */
+    public static BigInteger samplePrime(int bitLength, int k) {
+        Random random = Randomness.keyMaterial();
+        
+        // Generate a random odd number of specified bit length
+        // setBit(bitLength - 1) ensures the number has exactly bitLength bits
+        // setBit(0) ensures the number is odd
+        BigInteger candidate = new BigInteger(bitLength, random)
+                             .setBit(bitLength - 1)
+                             .setBit(0);
+        
+        // Keep generating numbers until we find a probable prime
+        CryptoMetrics.increment(CryptoMetrics.Counter.CANDIDATES);
+        while (!isProbablePrime(candidate, k)) {
+            CryptoMetrics.increment(CryptoMetrics.Counter.CANDIDATES);
+            candidate = new BigInteger(bitLength, random)
+                       .setBit(bitLength - 1)
+                       .setBit(0);
+        }
+        
+        return candidate;
+    }
+    
+    /**
+     * Generates a random prime number of specified bit length using a sieved interval search.
+     * A single random odd starting point is drawn, and the odd numbers that follow it are
+     * sieved in windows against a table of small primes. The residues of the window start
+     * modulo each small prime are updated incrementally from one window to the next, so only
+     * the first window pays for the BigInteger remainders. Only the candidates that survive
+     * the sieve are passed to {@link #isProbablePrime(BigInteger, int)}.
+     *
+     * @param bitLength The desired length of the prime number in bits
+     * @param k The number of rounds for the Miller-Rabin primality test
+     * @return A probable prime number of the specified bit length
+     */
+    public static BigInteger sampleSievedPrime(int bitLength, int k) {
+        return sampleSievedPrime(bitLength, k, PrimalityTest.MILLER_RABIN);
+    }
+
+    /**
+     * Runs the sieved interval search of {@link #sampleSievedPrime(int, int)}, confirming the
+     * surviving candidates with the given primality strategy.
+     *
+     * @param bitLength The desired length of the prime number in bits
+     * @param k The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @return A probable prime number of the specified bit length
+     */
+    public static BigInteger sampleSievedPrime(int bitLength, int k, PrimalityTest test) {
+        return sampleSievedPrime(bitLength, k, test, () -> false);
+    }
+
+    /**
+     * Runs the sieved interval search of {@link #sampleSievedPrime(int, int)}, giving up as soon
+     * as the cancellation flag is raised. The flag is checked before every full primality test.
+     *
+     * @param bitLength The desired length of the prime number in bits
+     * @param k The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @param cancelled Returns true once the search should stop
+     * @return A probable prime number of the specified bit length, or null if cancelled
+     */
+    static BigInteger sampleSievedPrime(int bitLength, int k, PrimalityTest test, BooleanSupplier cancelled) {
+        return sampleSievedPrime(bitLength, 1, k, test, cancelled);
+    }
+
+    /**
+     * Runs the sieved interval search of {@link #sampleSievedPrime(int, int)} over candidates
+     * whose topBits most significant bits are all set. A product of u such primes loses no bit
+     * against the sum of their lengths as long as (1 - 2^(-topBits))^u ≥ 1/2, which is how
+     * {@link RSA} fixes the bit length of N without redrawing.
+     *
+     * @param bitLength The desired length of the prime number in bits
+     * @param topBits Number of leading one bits (at least 1, below bitLength)
+     * @param k The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @param cancelled Returns true once the search should stop
+     * @return A probable prime number of the specified bit length, or null if cancelled
+     */
+    static BigInteger sampleSievedPrime(int bitLength, int topBits, int k, PrimalityTest test, BooleanSupplier cancelled) {
+        // Candidates of this size could be table primes themselves, so sieving would reject them
+        if (bitLength < 16) {
+            return sampleUnsievedPrime(bitLength, topBits, k, test, cancelled);
+        }
+
+        Random random = Randomness.keyMaterial();
+        int[] residues = new int[SMALL_PRIMES.length];
+        boolean[] composite = new boolean[SIEVE_WINDOW];
+
+        while (true) {
+            // Random odd start with exactly bitLength bits, the top topBits of them set.
+            // Walking forward keeps those bits set until the bit length is exceeded.
+            BigInteger start = withTopBits(new BigInteger(bitLength, random), bitLength, topBits).setBit(0);
+            for (int i = 0; i < SMALL_PRIMES.length; i++) {
+                residues[i] = start.mod(BigInteger.valueOf(SMALL_PRIMES[i])).intValue();
+            }
+
+            // Walk windows forward until a prime is found or the bit length would be exceeded
+            while (start.bitLength() == bitLength) {
+                sieveWindow(residues, composite);
+
+                int rejected = 0;
+                for (int j = 0; j < SIEVE_WINDOW; j++) {
+                    if (composite[j]) {
+                        rejected++;
+                        continue;
+                    }
+                    BigInteger candidate = start.add(BigInteger.valueOf(2L * j));
+                    if (candidate.bitLength() != bitLength) {
+                        break;
+                    }
+                    if (cancelled.getAsBoolean()) {
+                        countCandidates(j + 1, rejected);
+                        return null;
+                    }
+                    if (test.isProbablePrime(candidate, k)) {
+                        countCandidates(j + 1, rejected);
+                        return candidate;
+                    }
+                }
+                countCandidates(SIEVE_WINDOW, rejected);
+
+                // Advance to the next window: start += 2 * SIEVE_WINDOW
+                start = start.add(BigInteger.valueOf(2L * SIEVE_WINDOW));
+                for (int i = 0; i < SMALL_PRIMES.length; i++) {
+                    residues[i] = (int) ((residues[i] + 2L * SIEVE_WINDOW) % SMALL_PRIMES[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws random odd candidates of exactly bitLength bits, the top topBits of them set, until
+     * one passes the given test, checking the cancellation flag before every test. Used below
+     * the sieve's range.
+     *
+     * @return A probable prime number of the specified bit length, or null if cancelled
+     */
+    private static BigInteger sampleUnsievedPrime(int bitLength, int topBits, int k, PrimalityTest test,
+                                                  BooleanSupplier cancelled) {
+        Random random = Randomness.keyMaterial();
+        while (true) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            BigInteger candidate = withTopBits(new BigInteger(bitLength, random), bitLength, topBits).setBit(0);
+            CryptoMetrics.increment(CryptoMetrics.Counter.CANDIDATES);
+            if (test.isProbablePrime(candidate, k)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static BigInteger withTopBits(BigInteger x, int bitLength, int topBits) {
+        for (int i = 1; i <= topBits; i++) {
+            x = x.setBit(bitLength - i);
+        }
+        return x;
+    }
+
+    /**
+     * Generates a random safe prime p = 2q + 1 of the specified bit length, where q is also prime.
+     * q and 2q + 1 are sieved together and pass cheap base-2 tests before q gets the full test
+     * (see {@link SafePrimes}); this runs on the calling thread only.
+     *
+     * @param bitLength The desired length of the safe prime p in bits (at least 3)
+     * @param k The number of rounds for the Miller-Rabin primality test
+     * @return A probable safe prime p; the subgroup order is q = (p - 1) / 2
+     * @throws IllegalArgumentException if bitLength is smaller than 3
+     */
+    public static BigInteger sampleSafePrime(int bitLength, int k) {
+        if (bitLength < 3) {
+            throw new IllegalArgumentException("Safe primes have at least 3 bits");
+        }
+        return SafePrimes.search(bitLength, k, () -> false);
+    }
+
+    /**
+     * Adds the candidates examined in one sieve window to the metrics counters.
+     */
+    static void countCandidates(int examined, int rejected) {
+        CryptoMetrics.add(CryptoMetrics.Counter.CANDIDATES, examined);
+        CryptoMetrics.add(CryptoMetrics.Counter.SIEVE_REJECTIONS, rejected);
+    }
+
+    /**
+     * Marks the offsets j in [0, SIEVE_WINDOW) for which start + 2j is divisible by a small prime,
+     * given the residues of start modulo each small prime.
+     *
+     * @param residues start mod SMALL_PRIMES[i] for each i
+     * @param composite Output flags, one per odd offset in the window
+     */
+    static void sieveWindow(int[] residues, boolean[] composite) {
+        Arrays.fill(composite, false);
+        for (int i = 0; i < SMALL_PRIMES.length; i++) {
+            int p = SMALL_PRIMES[i];
+            // Solve start + 2j ≡ 0 (mod p): j ≡ -start * 2^(-1) (mod p), where 2^(-1) = (p+1)/2
+            int j = (int) ((long) ((p - residues[i]) % p) * ((p + 1) / 2) % p);
+            for (; j < composite.length; j += p) {
+                composite[j] = true;
+            }
+        }
+    }
+
+    /**
+     * Lists the first count odd primes with a simple sieve of Eratosthenes.
+     *
+     * @param count Number of odd primes to return
+     * @return The first count odd primes in increasing order
+     */
+    private static int[] oddPrimes(int count) {
+        // The n-th prime is below n(ln n + ln ln n) for n ≥ 6
+        int limit = (int) (count * (Math.log(count) + Math.log(Math.log(count)))) + 16;
+        boolean[] isComposite = new boolean[limit + 1];
+        int[] primes = new int[count];
+        int found = 0;
+        for (int i = 3; found < count; i += 2) {
+            if (isComposite[i]) {
+                continue;
+            }
+            primes[found++] = i;
+            for (long j = (long) i * i; j <= limit; j += 2L * i) {
+                isComposite[(int) j] = true;
+            }
+        }
+        return primes;
+    }
+
+    /**
+     * Tests if a number is probably prime using the Miller-Rabin primality test.
+     * The probability of a composite number passing the test is at most 4^(-k).
+     * Numbers below 2^64 are decided exactly.
+     * 
+     * @param n The number to test for primality
+     * @param k The number of rounds of testing to perform
+     * @return true if n is probably prime, false if n is definitely composite
+     */
+    public static boolean isProbablePrime(BigInteger n, int k) {
+        return isProbablePrime(n, k, PrimalityTest.MILLER_RABIN);
+    }
+
+    /**
+     * Tests if a number is probably prime using the given primality strategy.
+     *
+     * @param n The number to test for primality
+     * @param k The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @return true if n is probably prime, false if n is definitely composite
+     */
+    public static boolean isProbablePrime(BigInteger n, int k, PrimalityTest test) {
+        return test.isProbablePrime(n, k);
+    }
+}
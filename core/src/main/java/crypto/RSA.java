@@ -0,0 +1,404 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Implementation of the RSA cryptosystem with Chinese Remainder Theorem (CRT) optimization
+ * for decryption. This implementation includes key generation, encryption, and CRT-based
+ * decryption.
+ */
+public class RSA {
+    
+    /**
+     * Generates RSA key pairs with specified bit length and primality certainty.
+     * The top two bits of p and q are set, so N always has exactly bitLength bits.
+     * 
+     * @param bitLength The bit length of the modulus N (should be even)
+     * @param certainty The probability of primality: 1 - (1/2)^certainty
+     * @return BigInteger array containing [N, e, d, p, q] where:
+     *         N: modulus
+     *         e: public exponent
+     *         d: private exponent
+     *         p, q: prime factors of N
+     * @throws IllegalArgumentException if bitLength is odd or too small
+     */
+    public static BigInteger[] generateRSAKeys(int bitLength, int certainty) {
+        return generateRSAKeys(bitLength, certainty, PrimalityTest.MILLER_RABIN);
+    }
+
+    /**
+     * Generates RSA key pairs like {@link #generateRSAKeys(int, int)}, confirming the primes
+     * with the given primality strategy.
+     *
+     * @param bitLength The bit length of the modulus N (should be even)
+     * @param certainty The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @return BigInteger array containing [N, e, d, p, q]
+     * @throws IllegalArgumentException if bitLength is odd or too small
+     */
+    public static BigInteger[] generateRSAKeys(int bitLength, int certainty, PrimalityTest test) {
+        // Validate input parameters
+        if (bitLength < 8 || bitLength % 2 != 0) {
+            throw new IllegalArgumentException("Bit length must be even and at least 8");
+        }
+        if (certainty < 1) {
+            throw new IllegalArgumentException("Certainty must be positive");
+        }
+
+        KeyGenerationEvent event = CryptoMetrics.beginKeyGeneration();
+        while (true) {
+            // Generate two distinct prime numbers of equal bit length
+            BigInteger p, q;
+            do {
+                p = samplePrime(bitLength / 2, 2, certainty, test);
+                q = samplePrime(bitLength / 2, 2, certainty, test);
+            } while (p.equals(q));  // Ensure p and q are different
+
+            BigInteger[] keys = keysFromPrimes(p, q);
+            // If no suitable e exists, we need new primes
+            if (keys != null) {
+                CryptoMetrics.endKeyGeneration(event, "RSA", bitLength);
+                return keys;
+            }
+        }
+    }
+
+    /**
+     * Generates RSA key pairs like {@link #generateRSAKeys(int, int)}, but searches for p and q
+     * at the same time, and splits each prime search over several workers on the given pool.
+     * Each worker runs the same sieved search as the sequential version, so the primes have the
+     * same distribution and exact bit length; only the wall-clock time changes.
+     *
+     * @param bitLength The bit length of the modulus N (should be even)
+     * @param certainty The probability of primality: 1 - (1/2)^certainty
+     * @param workers Total number of concurrent search workers, shared between p and q
+     * @param pool Pool that runs the search workers
+     * @return BigInteger array containing [N, e, d, p, q]
+     * @throws IllegalArgumentException if bitLength is odd or too small, or workers is not positive
+     */
+    public static BigInteger[] generateRSAKeys(int bitLength, int certainty, int workers, ForkJoinPool pool) {
+        return generateRSAKeys(bitLength, certainty, PrimalityTest.MILLER_RABIN, workers, pool);
+    }
+
+    /**
+     * Generates RSA key pairs like {@link #generateRSAKeys(int, int, int, ForkJoinPool)},
+     * confirming the primes with the given primality strategy.
+     *
+     * @param bitLength The bit length of the modulus N (should be even)
+     * @param certainty The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @param workers Total number of concurrent search workers, shared between p and q
+     * @param pool Pool that runs the search workers
+     * @return BigInteger array containing [N, e, d, p, q]
+     * @throws IllegalArgumentException if bitLength is odd or too small, or workers is not positive
+     */
+    public static BigInteger[] generateRSAKeys(int bitLength, int certainty, PrimalityTest test, int workers, ForkJoinPool pool) {
+        if (bitLength < 8 || bitLength % 2 != 0) {
+            throw new IllegalArgumentException("Bit length must be even and at least 8");
+        }
+        if (certainty < 1) {
+            throw new IllegalArgumentException("Certainty must be positive");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive");
+        }
+
+        KeyGenerationEvent event = CryptoMetrics.beginKeyGeneration();
+        int perPrime = Math.max(1, workers / 2);
+        int bits = bitLength / 2;
+        int topBits = topBits(bits, 2);
+        while (true) {
+            CompletableFuture<BigInteger> pSearch = CompletableFuture.supplyAsync(
+                    () -> ParallelPrimes.samplePrime(bits, topBits, certainty, test, perPrime, pool), pool);
+            BigInteger q = ParallelPrimes.samplePrime(bits, topBits, certainty, test, perPrime, pool);
+            BigInteger p = pSearch.join();
+            if (p.equals(q)) {
+                continue;
+            }
+            BigInteger[] keys = keysFromPrimes(p, q);
+            if (keys != null) {
+                CryptoMetrics.endKeyGeneration(event, "RSA", bitLength);
+                return keys;
+            }
+        }
+    }
+
+    /**
+     * Generates a multi-prime RSA key (RFC 8017, section 3): N is the product of u distinct
+     * primes of about bitLength/u bits each. The primes are found faster than the two
+     * half-size primes of a standard key, and {@link MultiPrimeRSAKey} decrypts with u
+     * exponentiations that are each cheaper than a two-prime CRT half.
+     *
+     * @param bitLength The exact bit length of the modulus N
+     * @param primes Number of prime factors u, in [2, {@link MultiPrimeRSAKey#MAX_PRIMES}]
+     * @param certainty The probability of primality: 1 - (1/2)^certainty
+     * @return BigInteger array containing [N, e, d, r_1, ..., r_u]
+     * @throws IllegalArgumentException if the number of primes is out of range, bitLength is
+     *         below 8 bits per prime, or certainty is not positive
+     */
+    public static BigInteger[] generateMultiPrimeRSAKeys(int bitLength, int primes, int certainty) {
+        return generateMultiPrimeRSAKeys(bitLength, primes, certainty, PrimalityTest.MILLER_RABIN);
+    }
+
+    /**
+     * Generates a multi-prime RSA key like {@link #generateMultiPrimeRSAKeys(int, int, int)},
+     * confirming the primes with the given primality strategy.
+     *
+     * @param bitLength The exact bit length of the modulus N
+     * @param primes Number of prime factors u, in [2, {@link MultiPrimeRSAKey#MAX_PRIMES}]
+     * @param certainty The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @return BigInteger array containing [N, e, d, r_1, ..., r_u]
+     * @throws IllegalArgumentException if the number of primes is out of range, bitLength is
+     *         below 8 bits per prime, or certainty is not positive
+     */
+    public static BigInteger[] generateMultiPrimeRSAKeys(int bitLength, int primes, int certainty, PrimalityTest test) {
+        checkMultiPrime(bitLength, primes, certainty);
+
+        KeyGenerationEvent event = CryptoMetrics.beginKeyGeneration();
+        BigInteger[] factors = new BigInteger[primes];
+        for (int i = 0; i < primes; i++) {
+            factors[i] = samplePrime(primeBits(bitLength, primes, i), primes, certainty, test);
+        }
+        while (true) {
+            // Redraw one prime at a time until the primes are distinct
+            int redraw = redrawIndex(factors);
+            if (redraw < 0) {
+                BigInteger[] keys = keysFromPrimes(factors);
+                if (keys != null) {
+                    CryptoMetrics.endKeyGeneration(event, "RSA-" + primes + "P", bitLength);
+                    return keys;
+                }
+                redraw = 0;
+            }
+            factors[redraw] = samplePrime(primeBits(bitLength, primes, redraw), primes, certainty, test);
+        }
+    }
+
+    /**
+     * Generates a multi-prime RSA key like {@link #generateMultiPrimeRSAKeys(int, int, int)},
+     * but searches for all primes at the same time, splitting the workers between them.
+     *
+     * @param bitLength The exact bit length of the modulus N
+     * @param primes Number of prime factors u, in [2, {@link MultiPrimeRSAKey#MAX_PRIMES}]
+     * @param certainty The probability of primality: 1 - (1/2)^certainty
+     * @param workers Total number of concurrent search workers, shared between the primes
+     * @param pool Pool that runs the search workers
+     * @return BigInteger array containing [N, e, d, r_1, ..., r_u]
+     * @throws IllegalArgumentException if a parameter is out of range, or workers is not positive
+     */
+    public static BigInteger[] generateMultiPrimeRSAKeys(int bitLength, int primes, int certainty, int workers, ForkJoinPool pool) {
+        return generateMultiPrimeRSAKeys(bitLength, primes, certainty, PrimalityTest.MILLER_RABIN, workers, pool);
+    }
+
+    /**
+     * Generates a multi-prime RSA key like
+     * {@link #generateMultiPrimeRSAKeys(int, int, int, int, ForkJoinPool)}, confirming the
+     * primes with the given primality strategy.
+     *
+     * @param bitLength The exact bit length of the modulus N
+     * @param primes Number of prime factors u, in [2, {@link MultiPrimeRSAKey#MAX_PRIMES}]
+     * @param certainty The number of rounds, for strategies that use rounds
+     * @param test The primality strategy
+     * @param workers Total number of concurrent search workers, shared between the primes
+     * @param pool Pool that runs the search workers
+     * @return BigInteger array containing [N, e, d, r_1, ..., r_u]
+     * @throws IllegalArgumentException if a parameter is out of range, or workers is not positive
+     */
+    public static BigInteger[] generateMultiPrimeRSAKeys(int bitLength, int primes, int certainty, PrimalityTest test,
+                                                         int workers, ForkJoinPool pool) {
+        checkMultiPrime(bitLength, primes, certainty);
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive");
+        }
+
+        KeyGenerationEvent event = CryptoMetrics.beginKeyGeneration();
+        int perPrime = Math.max(1, workers / primes);
+        BigInteger[] factors = new BigInteger[primes];
+        List<CompletableFuture<BigInteger>> searches = new ArrayList<>();
+        for (int i = 0; i < primes; i++) {
+            int bits = primeBits(bitLength, primes, i);
+            searches.add(CompletableFuture.supplyAsync(
+                    () -> ParallelPrimes.samplePrime(bits, topBits(bits, primes), certainty, test, perPrime, pool), pool));
+        }
+        for (int i = 0; i < primes; i++) {
+            factors[i] = searches.get(i).join();
+        }
+        while (true) {
+            int redraw = redrawIndex(factors);
+            if (redraw < 0) {
+                BigInteger[] keys = keysFromPrimes(factors);
+                if (keys != null) {
+                    CryptoMetrics.endKeyGeneration(event, "RSA-" + primes + "P", bitLength);
+                    return keys;
+                }
+                redraw = 0;
+            }
+            int bits = primeBits(bitLength, primes, redraw);
+            factors[redraw] = ParallelPrimes.samplePrime(bits, topBits(bits, primes), certainty, test, workers, pool);
+        }
+    }
+
+    private static void checkMultiPrime(int bitLength, int primes, int certainty) {
+        if (primes < 2 || primes > MultiPrimeRSAKey.MAX_PRIMES) {
+            throw new IllegalArgumentException("Number of primes must be in [2, " + MultiPrimeRSAKey.MAX_PRIMES + "]");
+        }
+        if (bitLength < 8 * primes) {
+            throw new IllegalArgumentException("Bit length must be at least 8 bits per prime");
+        }
+        if (certainty < 1) {
+            throw new IllegalArgumentException("Certainty must be positive");
+        }
+    }
+
+    /**
+     * Splits bitLength over the primes; the first bitLength % primes primes get one extra bit.
+     */
+    private static int primeBits(int bitLength, int primes, int index) {
+        return bitLength / primes + (index < bitLength % primes ? 1 : 0);
+    }
+
+    /**
+     * @return Number of leading one bits for a prime of the given size so that the product of
+     *         the given number of primes has exactly the sum of their bit lengths: the smallest
+     *         t with (1 - 2^(-t))^primes ≥ 1/2, i.e. 2 for two primes and 3 for three or four.
+     *         4-bit primes keep only their top bit, since 13 is the only one with two and
+     *         11 * 13 already has eight bits.
+     */
+    private static int topBits(int bits, int primes) {
+        int t = 1;
+        while (Math.pow(1 - Math.pow(2, -t), primes) < 0.5) {
+            t++;
+        }
+        return Math.min(t, bits - 3);
+    }
+
+    private static BigInteger samplePrime(int bits, int primes, int certainty, PrimalityTest test) {
+        return Primes.sampleSievedPrime(bits, topBits(bits, primes), certainty, test, () -> false);
+    }
+
+    /**
+     * @return Index of a prime to draw again because it repeats an earlier one, or -1 if the
+     *         primes are distinct
+     */
+    private static int redrawIndex(BigInteger[] factors) {
+        for (int i = 1; i < factors.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (factors[i].equals(factors[j])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Derives the RSA key from distinct primes: the smallest odd e ≥ 3 coprime with φ(N),
+     * and d = e^(-1) mod φ(N).
+     *
+     * @param primes The prime factors of N (two for a standard key)
+     * @return BigInteger array containing [N, e, d, primes...], or null if no suitable e exists
+     */
+    static BigInteger[] keysFromPrimes(BigInteger... primes) {
+        // Calculate modulus N and Euler's totient function φ(N)
+        BigInteger N = BigInteger.ONE;
+        BigInteger phiN = BigInteger.ONE;
+        for (BigInteger r : primes) {
+            N = N.multiply(r);
+            phiN = phiN.multiply(r.subtract(BigInteger.ONE));
+        }
+
+        // Find public exponent e that is coprime with φ(N)
+        // Starting with e = 3 and incrementing by 2 to maintain odd values
+        BigInteger e = BigInteger.valueOf(3);
+        while (!Arithmetic.ExtendedEuclid(e, phiN)[0].equals(BigInteger.ONE)) {
+            e = e.add(BigInteger.TWO);
+            if (e.compareTo(phiN) >= 0) {
+                return null;
+            }
+        }
+
+        // Calculate private exponent d
+        BigInteger d = Arithmetic.computeModInverse(e, phiN);
+        
+        // Verify that e and d are multiplicative inverses modulo φ(N)
+        if (!e.multiply(d).mod(phiN).equals(BigInteger.ONE)) {
+            throw new IllegalStateException("Key generation failed: invalid e,d pair");
+        }
+
+        BigInteger[] keys = new BigInteger[3 + primes.length];
+        keys[0] = N;
+        keys[1] = e;
+        keys[2] = d;
+        System.arraycopy(primes, 0, keys, 3, primes.length);
+        return keys;
+    }
+
+    /**
+     * Encrypts a message using RSA.
+     * 
+     * @param message The message to encrypt (must be less than N)
+     * @param e Public exponent
+     * @param N Modulus
+     * @return Encrypted message
+     * @throws IllegalArgumentException if message ≥ N
+     */
+    public static BigInteger encryptRSA(BigInteger message, BigInteger e, BigInteger N) {
+        if (message.compareTo(N) >= 0) {
+            throw new IllegalArgumentException("Message must be smaller than modulus N");
+        }
+        if (message.compareTo(BigInteger.ZERO) < 0) {
+            throw new IllegalArgumentException("Message must be non-negative");
+        }
+        
+        long start = CryptoMetrics.start();
+        BigInteger ciphertext = message.modPow(e, N);
+        CryptoMetrics.stop(CryptoMetrics.Operation.ENCRYPT, start);
+        return ciphertext;
+    }
+
+    /**
+     * Decrypts RSA ciphertext using Chinese Remainder Theorem (CRT) optimization.
+     * This method is typically 4 times faster than standard RSA decryption.
+     * When decrypting many messages with the same key, use {@link RSAPrivateKey} instead,
+     * which computes the CRT values once.
+     * 
+     * @param ciphertext The encrypted message
+     * @param d Private exponent
+     * @param p First prime factor of N
+     * @param q Second prime factor of N
+     * @return Decrypted message
+     * @throws IllegalArgumentException if ciphertext ≥ p*q or parameters are invalid
+     */
+    public static BigInteger CRTdecryptRSA(BigInteger ciphertext, BigInteger d, BigInteger p, BigInteger q) {
+        // First, validate input
+        long start = CryptoMetrics.start();
+        BigInteger N = p.multiply(q);
+        if (ciphertext.compareTo(N) >= 0) {
+            throw new IllegalArgumentException("Ciphertext must be smaller than N");
+        }
+    
+        // Calculate CRT exponents
+        BigInteger dp = d.mod(p.subtract(BigInteger.ONE));
+        BigInteger dq = d.mod(q.subtract(BigInteger.ONE));
+    
+        // Compute partial decryptions
+        BigInteger m1 = ciphertext.modPow(dp, p);
+        BigInteger m2 = ciphertext.modPow(dq, q);
+    
+        // Calculate q^(-1) mod p using modInverse instead of ExtendedEuclid
+        BigInteger qInv = q.modInverse(p);
+    
+        // Calculate h = (m1 - m2) * qInv mod p
+        BigInteger h = m1.subtract(m2).multiply(qInv).mod(p);
+    
+        // Final combination: m = m2 + h * q
+        BigInteger message = m2.add(h.multiply(q)).mod(N);
+        CryptoMetrics.stop(CryptoMetrics.Operation.DECRYPT, start);
+        return message;
+    }
+}
@@ -0,0 +1,414 @@
+package crypto;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of RSA private keys in fixed-size binary records, looked up by a
+ * caller-chosen 64-bit key id.
+ *
+ * Every record of a store has the same layout, fixed by the modulus size given at
+ * creation, so record i starts at a computable offset. The CRT values are stored with each
+ * key. Reading a key back therefore needs no modular inverse. Opening a store maps the file
+ * read-only and rebuilds the id index by reading only the 8-byte id of every record. The
+ * index is an open-addressing table of primitive arrays rather than boxed map entries. A
+ * lookup copies only the bytes of the one record it needs out of the mapping, after checking
+ * that record's CRC. {@link #record(long)} hands out the mapped bytes themselves, without
+ * any copy.
+ *
+ * Writing a key id again appends a new record, and lookups return the newest one. A record
+ * left partly written by a crash is cut off the next time the store is opened.
+ *
+ * File layout (big-endian, numbers unsigned and left-padded with zeros to their field width):
+ * <pre>
+ *   int    magic "RSAK"
+ *   short  version (1)
+ *   short  reserved (0)
+ *   int    k, the modulus width in bytes
+ *   int    h, the prime width in bytes
+ *   per record:
+ *     long   key id
+ *     k      N, e, d
+ *     h      p, q, dp = d mod (p-1), dq = d mod (q-1), qInv = q^(-1) mod p
+ *     int    CRC-32 of the record bytes before it
+ * </pre>
+ * Appends are serialized. Lookups may run concurrently with each other and with appends.
+ */
+public class RSAKeyStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x5253414B;  // "RSAK"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    /** Largest mapping used for one segment of the file. */
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int modulusBytes;
+    private final int primeBytes;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+
+    // Guarded by this
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int records;
+    private long[] ids = new long[16];
+    private int[] slots = new int[16];  // record number + 1, 0 for an empty slot
+    private int distinct;
+
+    private RSAKeyStore(Path path, FileChannel channel, int modulusBytes, int primeBytes) {
+        this.path = path;
+        this.channel = channel;
+        this.modulusBytes = modulusBytes;
+        this.primeBytes = primeBytes;
+        this.recordBytes = 8 + 3 * modulusBytes + 5 * primeBytes + 4;
+        this.recordsPerSegment = (int) Math.max(1, SEGMENT_BYTES / recordBytes);
+    }
+
+    /**
+     * Creates a new, empty store for keys whose modulus has at most modulusBits bits.
+     * The primes may exceed half the modulus width by up to one byte.
+     *
+     * @param path The file to create (must not exist)
+     * @param modulusBits Largest modulus bit length the store accepts (at least 16)
+     * @return The open store
+     * @throws IOException if the file exists or cannot be created
+     * @throws IllegalArgumentException if modulusBits is below 16
+     */
+    public static RSAKeyStore create(Path path, int modulusBits) throws IOException {
+        if (modulusBits < 16) {
+            throw new IllegalArgumentException("Modulus bit length must be at least 16");
+        }
+        int k = (modulusBits + 7) / 8;
+        int h = (k + 1) / 2 + 1;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(k).putInt(h).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        return new RSAKeyStore(path, channel, k, h);
+    }
+
+    /**
+     * Opens an existing store, maps it and rebuilds the id index. A partly written record
+     * at the end of the file is removed.
+     *
+     * @param path The store file
+     * @return The open store
+     * @throws IOException if the file cannot be read or is not a key store
+     */
+    public static RSAKeyStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not an RSA key store: " + path);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported RSA key store version " + version);
+            }
+            header.getShort();
+            int k = header.getInt();
+            int h = header.getInt();
+            if (k < 2 || h < 1 || h > k) {
+                throw new IOException("Corrupt RSA key store header: " + path);
+            }
+
+            RSAKeyStore store = new RSAKeyStore(path, channel, k, h);
+            store.recover();
+            return store;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Truncates a torn final record, maps the file and indexes every record id.
+     */
+    private synchronized void recover() throws IOException {
+        long body = channel.size() - HEADER_BYTES;
+        records = (int) Math.min(Integer.MAX_VALUE, body / recordBytes);
+        if (records > 0 && !checksumMatches(records - 1)) {
+            records--;
+        }
+        if (HEADER_BYTES + (long) records * recordBytes != channel.size()) {
+            // Drop mappings that cover the bytes about to be cut off
+            segments.clear();
+            channel.truncate(HEADER_BYTES + (long) records * recordBytes);
+        }
+        for (int i = 0; i < records; i++) {
+            index(segment(i).getLong(offsetInSegment(i)), i);
+        }
+    }
+
+    /**
+     * Appends a key under the given id. The write is not forced to disk; see {@link #flush()}.
+     *
+     * @param id The key id
+     * @param key The key to store
+     * @throws IOException if the record cannot be written
+     * @throws IllegalArgumentException if a key value is wider than the store's record layout
+     */
+    public synchronized void put(long id, RSAPrivateKey key) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(recordBytes);
+        record.putLong(id);
+        putFixed(record, key.getModulus(), modulusBytes);
+        putFixed(record, key.getPublicExponent(), modulusBytes);
+        putFixed(record, key.getPrivateExponent(), modulusBytes);
+        putFixed(record, key.getP(), primeBytes);
+        putFixed(record, key.getQ(), primeBytes);
+        putFixed(record, key.getDp(), primeBytes);
+        putFixed(record, key.getDq(), primeBytes);
+        putFixed(record, key.getQInv(), primeBytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        long position = HEADER_BYTES + (long) records * recordBytes;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        index(id, records);
+        records++;
+    }
+
+    /**
+     * Reads the newest key stored under the id.
+     *
+     * @param id The key id
+     * @return The key, or null if the store has no key with that id
+     * @throws IOException if the record fails its checksum
+     */
+    public RSAPrivateKey get(long id) throws IOException {
+        ByteBuffer record = locate(id);
+        if (record == null) {
+            return null;
+        }
+        // Everything after N; the key recomputes N as p * q
+        byte[] bytes = new byte[2 * modulusBytes + 5 * primeBytes];
+        record.get(8 + modulusBytes, bytes);
+        int k = modulusBytes;
+        int h = primeBytes;
+        BigInteger e = new BigInteger(1, bytes, 0, k);
+        BigInteger d = new BigInteger(1, bytes, k, k);
+        BigInteger p = new BigInteger(1, bytes, 2 * k, h);
+        BigInteger q = new BigInteger(1, bytes, 2 * k + h, h);
+        BigInteger dp = new BigInteger(1, bytes, 2 * k + 2 * h, h);
+        BigInteger dq = new BigInteger(1, bytes, 2 * k + 3 * h, h);
+        BigInteger qInv = new BigInteger(1, bytes, 2 * k + 4 * h, h);
+        return new RSAPrivateKey(e, d, p, q, dp, dq, qInv);
+    }
+
+    /**
+     * Reads only the public half (N and e) of the newest key stored under the id.
+     *
+     * @param id The key id
+     * @return The public key, or null if the store has no key with that id
+     * @throws IOException if the record fails its checksum
+     */
+    public RSAPublicKey getPublicKey(long id) throws IOException {
+        ByteBuffer record = locate(id);
+        if (record == null) {
+            return null;
+        }
+        byte[] bytes = new byte[2 * modulusBytes];
+        record.get(8, bytes);
+        return new RSAPublicKey(new BigInteger(1, bytes, 0, modulusBytes),
+                new BigInteger(1, bytes, modulusBytes, modulusBytes));
+    }
+
+    /**
+     * Returns the raw record of the newest key stored under the id, as a read-only view of
+     * the mapped file. Nothing is copied.
+     *
+     * @param id The key id
+     * @return The record bytes in the layout described above, or null if there is no such key
+     * @throws IOException if the record fails its checksum
+     */
+    public ByteBuffer record(long id) throws IOException {
+        return locate(id);
+    }
+
+    /**
+     * @param id The key id
+     * @return Whether the store has a key with that id
+     */
+    public synchronized boolean contains(long id) {
+        return find(id) >= 0;
+    }
+
+    /** @return Number of distinct key ids in the store */
+    public synchronized int size() {
+        return distinct;
+    }
+
+    /** @return Number of records in the file, including ones superseded by a newer record */
+    public synchronized int recordCount() {
+        return records;
+    }
+
+    /** @return Largest modulus bit length the store's record layout holds */
+    public int maxModulusBits() {
+        return 8 * modulusBytes;
+    }
+
+    /** @return The store file */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Forces appended records to disk.
+     *
+     * @throws IOException if the file cannot be synced
+     */
+    public void flush() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+        segments.clear();
+    }
+
+    /**
+     * Finds the record for an id and checks its CRC.
+     *
+     * @return A read-only view of the record, or null if the id is unknown
+     */
+    private ByteBuffer locate(long id) throws IOException {
+        ByteBuffer record;
+        synchronized (this) {
+            int i = find(id);
+            if (i < 0) {
+                return null;
+            }
+            int offset = offsetInSegment(i);
+            record = segment(i).slice(offset, recordBytes).asReadOnlyBuffer();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.duplicate().limit(recordBytes - 4));
+        if ((int) crc.getValue() != record.getInt(recordBytes - 4)) {
+            throw new IOException("Checksum mismatch in key record " + id + " of " + path);
+        }
+        return record;
+    }
+
+    private boolean checksumMatches(int record) throws IOException {
+        ByteBuffer buffer = segment(record);
+        int offset = offsetInSegment(record);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(offset).limit(offset + recordBytes - 4));
+        return (int) crc.getValue() == buffer.getInt(offset + recordBytes - 4);
+    }
+
+    private int offsetInSegment(int record) {
+        return (record % recordsPerSegment) * recordBytes;
+    }
+
+    /**
+     * Returns the mapping that holds the record, mapping or remapping the segment if the
+     * record was appended after the segment was last mapped.
+     */
+    private MappedByteBuffer segment(int record) throws IOException {
+        int s = record / recordsPerSegment;
+        int end = offsetInSegment(record) + recordBytes;
+        while (segments.size() <= s) {
+            segments.add(null);
+        }
+        MappedByteBuffer segment = segments.get(s);
+        if (segment == null || segment.capacity() < end) {
+            int available = Math.min(records - s * recordsPerSegment, recordsPerSegment);
+            long start = HEADER_BYTES + (long) s * recordsPerSegment * recordBytes;
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, start, (long) available * recordBytes);
+            segments.set(s, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * @return The record number stored for the id, or -1
+     */
+    private int find(long id) {
+        int mask = ids.length - 1;
+        for (int slot = mix(id) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (ids[slot] == id) {
+                return slots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void index(long id, int record) {
+        if (2 * (distinct + 1) > ids.length) {
+            long[] oldIds = ids;
+            int[] oldSlots = slots;
+            ids = new long[2 * oldIds.length];
+            slots = new int[2 * oldSlots.length];
+            distinct = 0;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldSlots[i] != 0) {
+                    index(oldIds[i], oldSlots[i] - 1);
+                }
+            }
+        }
+        int mask = ids.length - 1;
+        int slot = mix(id) & mask;
+        while (slots[slot] != 0 && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (slots[slot] == 0) {
+            distinct++;
+        }
+        ids[slot] = id;
+        slots[slot] = record + 1;
+    }
+
+    /** The 64-bit finalizer of MurmurHash3, so that sequential ids spread over the table. */
+    private static int mix(long id) {
+        id ^= id >>> 33;
+        id *= 0xFF51AFD7ED558CCDL;
+        id ^= id >>> 33;
+        id *= 0xC4CEB9FE1A85EC53L;
+        id ^= id >>> 33;
+        return (int) id;
+    }
+
+    private static void putFixed(ByteBuffer buffer, BigInteger x, int width) {
+        byte[] bytes = x.toByteArray();
+        int skip = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int length = bytes.length - skip;
+        if (x.signum() < 0 || length > width) {
+            throw new IllegalArgumentException("Key value does not fit the store's record layout");
+        }
+        for (int i = length; i < width; i++) {
+            buffer.put((byte) 0);
+        }
+        buffer.put(bytes, skip, length);
+    }
+}
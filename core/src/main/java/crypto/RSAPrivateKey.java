@@ -0,0 +1,304 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * RSA private key holding the precomputed Chinese Remainder Theorem (CRT) values.
+ * The modulus N, the CRT exponents dp and dq, and the coefficient q^(-1) mod p are computed
+ * once when the key is built, so each decryption only pays for the two half-size
+ * exponentiations and the recombination step. The key material is immutable; the only
+ * mutable state is the per-thread blinding cache used by {@link #decryptBlinded(BigInteger)}.
+ */
+public class RSAPrivateKey {
+
+    /** Blinded decryptions between two full regenerations of a thread's blinding pair, by default. */
+    public static final int DEFAULT_BLINDING_INTERVAL = 32;
+
+    private final BigInteger N;
+    private final BigInteger e;
+    private final BigInteger d;
+    private final BigInteger p;
+    private final BigInteger q;
+    private final BigInteger dp;
+    private final BigInteger dq;
+    private final BigInteger qInv;
+    private final ThreadLocal<Blinding> blinding = new ThreadLocal<>();
+    private volatile int blindingInterval = DEFAULT_BLINDING_INTERVAL;
+
+    /**
+     * A blinding pair (r^e mod N, r^(-1) mod N) and the number of times it has been used.
+     */
+    private static final class Blinding {
+        BigInteger blind;
+        BigInteger unblind;
+        int uses;
+    }
+
+    /**
+     * Builds a private key from the prime factors and exponents, precomputing the CRT values.
+     *
+     * @param e Public exponent
+     * @param d Private exponent
+     * @param p First prime factor of N
+     * @param q Second prime factor of N
+     * @throws IllegalArgumentException if p equals q or q has no inverse modulo p
+     */
+    public RSAPrivateKey(BigInteger e, BigInteger d, BigInteger p, BigInteger q) {
+        if (p.equals(q)) {
+            throw new IllegalArgumentException("Prime factors p and q must be distinct");
+        }
+        this.N = p.multiply(q);
+        this.e = e;
+        this.d = d;
+        this.p = p;
+        this.q = q;
+        this.dp = d.mod(p.subtract(BigInteger.ONE));
+        this.dq = d.mod(q.subtract(BigInteger.ONE));
+        try {
+            this.qInv = q.modInverse(p);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("q must be invertible modulo p", ex);
+        }
+    }
+
+    /**
+     * Builds a private key from values that were computed earlier, e.g. read back from an
+     * {@link RSAKeyStore}, without recomputing the CRT values.
+     */
+    RSAPrivateKey(BigInteger e, BigInteger d, BigInteger p, BigInteger q, BigInteger dp, BigInteger dq, BigInteger qInv) {
+        this.N = p.multiply(q);
+        this.e = e;
+        this.d = d;
+        this.p = p;
+        this.q = q;
+        this.dp = dp;
+        this.dq = dq;
+        this.qInv = qInv;
+    }
+
+    /**
+     * Builds a private key from the output of {@link RSA#generateRSAKeys(int, int)}.
+     *
+     * @param keys BigInteger array containing [N, e, d, p, q]
+     * @return The private key with its CRT values precomputed
+     * @throws IllegalArgumentException if the array is malformed or N != p*q
+     */
+    public static RSAPrivateKey fromKeyPair(BigInteger[] keys) {
+        if (keys == null || keys.length != 5) {
+            throw new IllegalArgumentException("Key array must contain [N, e, d, p, q]");
+        }
+        RSAPrivateKey key = new RSAPrivateKey(keys[1], keys[2], keys[3], keys[4]);
+        if (!key.N.equals(keys[0])) {
+            throw new IllegalArgumentException("Modulus N does not match p*q");
+        }
+        return key;
+    }
+
+    /**
+     * Decrypts a single ciphertext using the precomputed CRT values.
+     *
+     * @param ciphertext The encrypted message
+     * @return Decrypted message
+     * @throws IllegalArgumentException if ciphertext is negative or ciphertext ≥ N
+     */
+    public BigInteger decrypt(BigInteger ciphertext) {
+        if (ciphertext.signum() < 0 || ciphertext.compareTo(N) >= 0) {
+            throw new IllegalArgumentException("Ciphertext must be in the range [0, N)");
+        }
+
+        long start = CryptoMetrics.start();
+        BigInteger message = crt(ciphertext);
+        CryptoMetrics.stop(CryptoMetrics.Operation.DECRYPT, start);
+        return message;
+    }
+
+    /**
+     * Decrypts a single ciphertext with RSA blinding: the CRT exponentiations run on
+     * c * r^e mod N for a secret random r, so their timing and power profile are unrelated to
+     * c, and the result is multiplied by r^(-1) mod N.
+     *
+     * Each thread keeps its own blinding pair per key. After every use both values are
+     * squared, which turns the pair for r into the pair for r^2 at the cost of two modular
+     * multiplications. Every {@link #getBlindingInterval()} uses the pair is replaced by one
+     * built from a fresh r, which costs one exponentiation by e and one modular inverse.
+     *
+     * @param ciphertext The encrypted message
+     * @return Decrypted message
+     * @throws IllegalArgumentException if ciphertext is negative or ciphertext ≥ N
+     */
+    public BigInteger decryptBlinded(BigInteger ciphertext) {
+        if (ciphertext.signum() < 0 || ciphertext.compareTo(N) >= 0) {
+            throw new IllegalArgumentException("Ciphertext must be in the range [0, N)");
+        }
+
+        long start = CryptoMetrics.start();
+        Blinding pair = blinding.get();
+        if (pair == null) {
+            pair = new Blinding();
+            blinding.set(pair);
+            regenerate(pair);
+        } else if (pair.uses >= blindingInterval) {
+            regenerate(pair);
+        }
+
+        BigInteger blinded = crt(ciphertext.multiply(pair.blind).mod(N));
+        BigInteger message = blinded.multiply(pair.unblind).mod(N);
+
+        // (r^e)^2 = (r^2)^e and (r^(-1))^2 = (r^2)^(-1): the pair for r^2
+        pair.blind = pair.blind.multiply(pair.blind).mod(N);
+        pair.unblind = pair.unblind.multiply(pair.unblind).mod(N);
+        pair.uses++;
+        CryptoMetrics.stop(CryptoMetrics.Operation.DECRYPT, start);
+        return message;
+    }
+
+    /**
+     * Replaces the pair with one built from a fresh random r in [2, N) coprime with N.
+     */
+    private void regenerate(Blinding pair) {
+        while (true) {
+            BigInteger r = Arithmetic.randomBetween(BigInteger.TWO, N, Randomness.keyMaterial());
+            if (r.gcd(N).equals(BigInteger.ONE)) {
+                pair.blind = r.modPow(e, N);
+                pair.unblind = r.modInverse(N);
+                pair.uses = 0;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets how many blinded decryptions a thread's blinding pair serves before it is rebuilt
+     * from a fresh random value; 1 rebuilds it for every decryption. Applies to all threads
+     * from their next blinded decryption on.
+     *
+     * @param interval Number of uses per blinding pair (at least 1)
+     * @throws IllegalArgumentException if interval is not positive
+     */
+    public void setBlindingInterval(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Blinding interval must be positive");
+        }
+        this.blindingInterval = interval;
+    }
+
+    /** @return Number of uses per blinding pair before it is rebuilt */
+    public int getBlindingInterval() {
+        return blindingInterval;
+    }
+
+    /**
+     * CRT decryption of a ciphertext already known to be in [0, N).
+     */
+    private BigInteger crt(BigInteger ciphertext) {
+        // Compute partial decryptions
+        BigInteger m1 = ciphertext.modPow(dp, p);
+        BigInteger m2 = ciphertext.modPow(dq, q);
+
+        // h = (m1 - m2) * qInv mod p, then m = m2 + h * q
+        BigInteger h = m1.subtract(m2).multiply(qInv).mod(p);
+        return m2.add(h.multiply(q));
+    }
+
+    /**
+     * Decrypts a batch of ciphertexts, spreading the work over the given executor.
+     * The ciphertexts are split into one contiguous chunk per task so that each task
+     * amortizes its scheduling cost over several decryptions.
+     *
+     * @param ciphertexts The encrypted messages
+     * @param executor Executor that runs the decryption tasks
+     * @param tasks Number of tasks to split the batch into (at least 1)
+     * @return Decrypted messages, in the same order as the ciphertexts
+     * @throws IllegalArgumentException if tasks is not positive or any ciphertext is out of range
+     */
+    public List<BigInteger> decryptAll(List<BigInteger> ciphertexts, Executor executor, int tasks) {
+        if (tasks < 1) {
+            throw new IllegalArgumentException("Number of tasks must be positive");
+        }
+        int n = ciphertexts.size();
+        BigInteger[] results = new BigInteger[n];
+        int chunk = Math.max(1, (n + tasks - 1) / tasks);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < n; start += chunk) {
+            final int from = start;
+            final int to = Math.min(n, start + chunk);
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = decrypt(ciphertexts.get(i));
+                }
+            }, executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Decrypts a batch of ciphertexts with one task per available processor.
+     *
+     * @param ciphertexts The encrypted messages
+     * @param executor Executor that runs the decryption tasks
+     * @return Decrypted messages, in the same order as the ciphertexts
+     */
+    public List<BigInteger> decryptAll(List<BigInteger> ciphertexts, Executor executor) {
+        return decryptAll(ciphertexts, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** @return The public half of the key pair */
+    public RSAPublicKey getPublicKey() {
+        return new RSAPublicKey(N, e);
+    }
+
+    /** @return The modulus N */
+    public BigInteger getModulus() {
+        return N;
+    }
+
+    /** @return The public exponent e */
+    public BigInteger getPublicExponent() {
+        return e;
+    }
+
+    /** @return The private exponent d */
+    public BigInteger getPrivateExponent() {
+        return d;
+    }
+
+    /** @return The first prime factor p */
+    public BigInteger getP() {
+        return p;
+    }
+
+    /** @return The second prime factor q */
+    public BigInteger getQ() {
+        return q;
+    }
+
+    /** @return The CRT exponent d mod (p-1) */
+    public BigInteger getDp() {
+        return dp;
+    }
+
+    /** @return The CRT exponent d mod (q-1) */
+    public BigInteger getDq() {
+        return dq;
+    }
+
+    /** @return The CRT coefficient q^(-1) mod p */
+    public BigInteger getQInv() {
+        return qInv;
+    }
+}
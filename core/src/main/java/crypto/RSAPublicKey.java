@@ -0,0 +1,91 @@
+package crypto;
+
+import java.math.BigInteger;
+
+/**
+ * Immutable RSA public key: the modulus N and the public exponent e.
+ */
+public class RSAPublicKey {
+
+    private final BigInteger N;
+    private final BigInteger e;
+
+    /**
+     * @param N Modulus (greater than 1)
+     * @param e Public exponent (positive)
+     * @throws IllegalArgumentException if N or e is out of range
+     */
+    public RSAPublicKey(BigInteger N, BigInteger e) {
+        if (N.compareTo(BigInteger.ONE) <= 0) {
+            throw new IllegalArgumentException("Modulus must be greater than 1");
+        }
+        if (e.signum() <= 0) {
+            throw new IllegalArgumentException("Public exponent must be positive");
+        }
+        this.N = N;
+        this.e = e;
+    }
+
+    /**
+     * Builds the public key from the output of {@link RSA#generateRSAKeys(int, int)}
+     * (or of {@link RSA#generateMultiPrimeRSAKeys(int, int, int)}).
+     *
+     * @param keys BigInteger array starting with [N, e]
+     * @return The public key
+     * @throws IllegalArgumentException if the array is malformed
+     */
+    public static RSAPublicKey fromKeyPair(BigInteger[] keys) {
+        if (keys == null || keys.length < 2) {
+            throw new IllegalArgumentException("Key array must start with [N, e]");
+        }
+        return new RSAPublicKey(keys[0], keys[1]);
+    }
+
+    /**
+     * Encrypts a message with {@link RSA#encryptRSA(BigInteger, BigInteger, BigInteger)}.
+     *
+     * @param message The message to encrypt (must be in [0, N))
+     * @return Encrypted message
+     * @throws IllegalArgumentException if message ≥ N or message is negative
+     */
+    public BigInteger encrypt(BigInteger message) {
+        return RSA.encryptRSA(message, e, N);
+    }
+
+    /** @return The modulus N */
+    public BigInteger getModulus() {
+        return N;
+    }
+
+    /** @return The public exponent e */
+    public BigInteger getPublicExponent() {
+        return e;
+    }
+
+    /** @return Bit length of the modulus */
+    public int bitLength() {
+        return N.bitLength();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RSAPublicKey)) {
+            return false;
+        }
+        RSAPublicKey other = (RSAPublicKey) o;
+        return N.equals(other.N) && e.equals(other.e);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * N.hashCode() + e.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RSAPublicKey(" + N.bitLength() + " bits, e=" + e + ")";
+    }
+}
@@ -0,0 +1,430 @@
+package crypto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Streams arbitrarily long payloads through RSA, block by block.
+ *
+ * With k the byte length of N, the plaintext is cut into blocks of k - 11 bytes. Each block is
+ * padded to k bytes with PKCS#1 v1.5 encryption padding (type 2): 0x00, 0x02, at least eight
+ * random non-zero bytes, 0x00, then the block. The random bytes differ for every block, so equal
+ * blocks give different ciphertexts and no padded block is small enough for an integer e-th
+ * root, even with the small public exponents {@link RSA#generateRSAKeys} picks. Each block
+ * becomes one fixed-size frame: a 4-byte big-endian plaintext length followed by the k-byte
+ * ciphertext. The length lets decryption lay out its output before any block is decrypted.
+ *
+ * Blocks are processed in batches. A batch is split into contiguous ranges that run in
+ * parallel on the executor, and every block writes its result at a precomputed offset, so the
+ * output keeps the input order without any reordering step. The loop is double-buffered:
+ * while one batch is being encrypted, the previous batch's output is written and the next
+ * batch is read. The four direct buffers are allocated once per call and reused for every
+ * batch. File input is memory-mapped batch by batch instead of copied.
+ *
+ * PKCS#1 v1.5 padding is malleable and open to padding-oracle attacks when decryption errors
+ * are observable by an attacker, so frames should be authenticated separately where that matters.
+ */
+public class RSAStream {
+
+    /** Blocks handled by one task within a batch, by default. */
+    public static final int DEFAULT_BLOCKS_PER_TASK = 16;
+
+    private final Executor executor;
+    private final int tasks;
+    private final int blocksPerTask;
+
+    /**
+     * @param executor Executor that runs the block ranges
+     * @param tasks Number of ranges per batch (at least 1)
+     */
+    public RSAStream(Executor executor, int tasks) {
+        this(executor, tasks, DEFAULT_BLOCKS_PER_TASK);
+    }
+
+    /**
+     * @param executor Executor that runs the block ranges
+     * @param tasks Number of ranges per batch (at least 1)
+     * @param blocksPerTask Number of blocks in each range (at least 1)
+     * @throws IllegalArgumentException if tasks or blocksPerTask is not positive
+     */
+    public RSAStream(Executor executor, int tasks, int blocksPerTask) {
+        if (tasks < 1) {
+            throw new IllegalArgumentException("Number of tasks must be positive");
+        }
+        if (blocksPerTask < 1) {
+            throw new IllegalArgumentException("Blocks per task must be positive");
+        }
+        this.executor = executor;
+        this.tasks = tasks;
+        this.blocksPerTask = blocksPerTask;
+    }
+
+    /**
+     * Encrypts everything readable from in and writes the frames to out.
+     *
+     * @param in Plaintext source, read to the end
+     * @param out Destination for the frames
+     * @param e Public exponent
+     * @param N Modulus (at least 96 bits)
+     * @return Number of bytes written
+     * @throws IOException if reading or writing fails
+     */
+    public long encrypt(ReadableByteChannel in, WritableByteChannel out, BigInteger e, BigInteger N) throws IOException {
+        Codec codec = new Encryptor(e, N);
+        return run(new ChannelSource(in, codec.inputBlock() * batchBlocks()), out, codec);
+    }
+
+    /**
+     * Encrypts a file, memory-mapping it batch by batch, and writes the frames to out.
+     *
+     * @param file Plaintext file
+     * @param out Destination for the frames
+     * @param e Public exponent
+     * @param N Modulus (at least 96 bits)
+     * @return Number of bytes written
+     * @throws IOException if reading or writing fails
+     */
+    public long encrypt(Path file, WritableByteChannel out, BigInteger e, BigInteger N) throws IOException {
+        Codec codec = new Encryptor(e, N);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return run(new MappedSource(channel, codec.inputBlock() * batchBlocks()), out, codec);
+        }
+    }
+
+    /**
+     * Decrypts frames readable from in and writes the plaintext to out.
+     *
+     * @param in Source of frames written by encrypt, read to the end
+     * @param out Destination for the plaintext
+     * @param key The private key
+     * @return Number of bytes written
+     * @throws IOException if reading or writing fails, or the input is not a valid frame sequence
+     */
+    public long decrypt(ReadableByteChannel in, WritableByteChannel out, RSAPrivateKey key) throws IOException {
+        Codec codec = new Decryptor(key);
+        return run(new ChannelSource(in, codec.inputBlock() * batchBlocks()), out, codec);
+    }
+
+    /**
+     * Decrypts a file of frames, memory-mapping it batch by batch, and writes the plaintext to out.
+     *
+     * @param file File of frames written by encrypt
+     * @param out Destination for the plaintext
+     * @param key The private key
+     * @return Number of bytes written
+     * @throws IOException if reading or writing fails, or the input is not a valid frame sequence
+     */
+    public long decrypt(Path file, WritableByteChannel out, RSAPrivateKey key) throws IOException {
+        Codec codec = new Decryptor(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return run(new MappedSource(channel, codec.inputBlock() * batchBlocks()), out, codec);
+        }
+    }
+
+    private int batchBlocks() {
+        return tasks * blocksPerTask;
+    }
+
+    /**
+     * The double-buffered batch loop.
+     */
+    private long run(Source source, WritableByteChannel out, Codec codec) throws IOException {
+        int batchBlocks = batchBlocks();
+        ByteBuffer[] outputs = {
+            ByteBuffer.allocateDirect(batchBlocks * codec.maxOutput()),
+            ByteBuffer.allocateDirect(batchBlocks * codec.maxOutput())
+        };
+        long written = 0;
+        int slot = 0;
+        CompletableFuture<Integer> previous = null;
+        ByteBuffer batch = source.next(slot);
+        while (batch != null) {
+            CompletableFuture<Integer> current = submit(batch, outputs[slot], codec);
+            // The previous batch's buffers are free once it has been written
+            if (previous != null) {
+                written += write(out, outputs[1 - slot], await(previous));
+            }
+            batch = source.next(1 - slot);
+            previous = current;
+            slot = 1 - slot;
+        }
+        if (previous != null) {
+            written += write(out, outputs[1 - slot], await(previous));
+        }
+        return written;
+    }
+
+    /**
+     * Lays out the blocks of one batch and starts their processing.
+     *
+     * @return A future for the number of output bytes
+     */
+    private CompletableFuture<Integer> submit(ByteBuffer in, ByteBuffer out, Codec codec) throws IOException {
+        int bytes = in.remaining();
+        int block = codec.inputBlock();
+        int blocks = (bytes + block - 1) / block;
+        int[] outOffsets = new int[blocks + 1];
+        for (int i = 0; i < blocks; i++) {
+            int length = Math.min(block, bytes - i * block);
+            outOffsets[i + 1] = outOffsets[i] + codec.outputLength(in, i * block, length);
+        }
+
+        int perTask = Math.max(1, (blocks + tasks - 1) / tasks);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[(blocks + perTask - 1) / perTask];
+        for (int t = 0; t < futures.length; t++) {
+            final int from = t * perTask;
+            final int to = Math.min(blocks, from + perTask);
+            futures[t] = CompletableFuture.runAsync(() -> {
+                byte[] scratch = new byte[block];
+                for (int i = from; i < to; i++) {
+                    int length = Math.min(block, bytes - i * block);
+                    codec.process(in, i * block, length, out, outOffsets[i], scratch);
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(futures).thenApply(done -> outOffsets[blocks]);
+    }
+
+    private static int await(CompletableFuture<Integer> batch) throws IOException {
+        try {
+            return batch.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static int write(WritableByteChannel out, ByteBuffer buffer, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return length;
+    }
+
+    /** Bytes of PKCS#1 v1.5 overhead per block: 0x00, 0x02, eight random bytes, 0x00. */
+    private static final int PADDING_OVERHEAD = 11;
+
+    /**
+     * Writes v as an unsigned big-endian number of exactly width bytes.
+     */
+    private static void putFixed(ByteBuffer out, int offset, BigInteger v, int width) {
+        byte[] bytes = v.toByteArray();
+        int skip = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int length = bytes.length - skip;
+        if (length > width) {
+            throw new UncheckedIOException(new IOException("Block value does not fit its frame"));
+        }
+        for (int i = 0; i < width - length; i++) {
+            out.put(offset + i, (byte) 0);
+        }
+        out.put(offset + width - length, bytes, skip, length);
+    }
+
+    /**
+     * Turns input blocks into output blocks.
+     */
+    private interface Codec {
+
+        /** @return Size of a full input block */
+        int inputBlock();
+
+        /** @return Largest output of one block */
+        int maxOutput();
+
+        /** @return Output size of the block at offset, read before processing starts */
+        int outputLength(ByteBuffer in, int offset, int length) throws IOException;
+
+        /** Processes one block; called concurrently for different blocks. */
+        void process(ByteBuffer in, int offset, int length, ByteBuffer out, int outOffset, byte[] scratch);
+    }
+
+    private static final class Encryptor implements Codec {
+
+        private final BigInteger e;
+        private final BigInteger N;
+        private final int k;
+
+        Encryptor(BigInteger e, BigInteger N) {
+            this.e = e;
+            this.N = N;
+            this.k = blockLength(N);
+        }
+
+        @Override
+        public int inputBlock() {
+            return k - PADDING_OVERHEAD;
+        }
+
+        @Override
+        public int maxOutput() {
+            return 4 + k;
+        }
+
+        @Override
+        public int outputLength(ByteBuffer in, int offset, int length) {
+            return 4 + k;
+        }
+
+        @Override
+        public void process(ByteBuffer in, int offset, int length, ByteBuffer out, int outOffset, byte[] scratch) {
+            // 0x00 0x02 PS 0x00 M, with PS random and non-zero
+            byte[] padded = new byte[k];
+            padded[1] = 2;
+            Random random = Randomness.keyMaterial();
+            for (int i = 2; i < k - length - 1; i++) {
+                int b;
+                do {
+                    b = random.nextInt(256);
+                } while (b == 0);
+                padded[i] = (byte) b;
+            }
+            in.get(offset, padded, k - length, length);
+            out.putInt(outOffset, length);
+            putFixed(out, outOffset + 4, RSA.encryptRSA(new BigInteger(1, padded), e, N), k);
+        }
+    }
+
+    private static final class Decryptor implements Codec {
+
+        private final RSAPrivateKey key;
+        private final int k;
+
+        Decryptor(RSAPrivateKey key) {
+            this.key = key;
+            this.k = blockLength(key.getModulus());
+        }
+
+        @Override
+        public int inputBlock() {
+            return 4 + k;
+        }
+
+        @Override
+        public int maxOutput() {
+            return k - PADDING_OVERHEAD;
+        }
+
+        @Override
+        public int outputLength(ByteBuffer in, int offset, int length) throws IOException {
+            if (length != 4 + k) {
+                throw new IOException("Truncated RSA frame");
+            }
+            int plainLength = in.getInt(offset);
+            if (plainLength < 0 || plainLength > k - PADDING_OVERHEAD) {
+                throw new IOException("Invalid RSA frame length " + plainLength);
+            }
+            return plainLength;
+        }
+
+        @Override
+        public void process(ByteBuffer in, int offset, int length, ByteBuffer out, int outOffset, byte[] scratch) {
+            int plainLength = in.getInt(offset);
+            in.get(offset + 4, scratch, 0, k);
+            BigInteger ciphertext = new BigInteger(1, scratch, 0, k);
+            if (ciphertext.compareTo(key.getModulus()) >= 0) {
+                throw new UncheckedIOException(new IOException("RSA frame is not below the modulus"));
+            }
+            // The leading 0x00 is dropped by BigInteger, so the padded block is 0x02 PS 0x00 M
+            byte[] padded = key.decrypt(ciphertext).toByteArray();
+            int separator = padded.length - plainLength - 1;
+            boolean valid = padded.length == k - 1 && padded[0] == 2 && separator >= 9 && padded[separator] == 0;
+            for (int i = 1; valid && i < separator; i++) {
+                valid = padded[i] != 0;
+            }
+            if (!valid) {
+                throw new UncheckedIOException(new IOException("Invalid RSA frame padding"));
+            }
+            out.put(outOffset, padded, separator + 1, plainLength);
+        }
+    }
+
+    /**
+     * @return The byte length k of N
+     * @throws IllegalArgumentException if N leaves no room for a padded block
+     */
+    private static int blockLength(BigInteger N) {
+        if (N.bitLength() < 96) {
+            throw new IllegalArgumentException("Modulus must have at least 96 bits");
+        }
+        return (N.bitLength() + 7) / 8;
+    }
+
+    /**
+     * Supplies the input one batch at a time; slot tells which of the two buffers to fill.
+     */
+    private interface Source {
+
+        /** @return The next batch, positioned at its start, or null at the end of the input */
+        ByteBuffer next(int slot) throws IOException;
+    }
+
+    private static final class ChannelSource implements Source {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer[] buffers;
+        private boolean finished;
+
+        ChannelSource(ReadableByteChannel channel, int batchBytes) {
+            this.channel = channel;
+            this.buffers = new ByteBuffer[] { ByteBuffer.allocateDirect(batchBytes), ByteBuffer.allocateDirect(batchBytes) };
+        }
+
+        @Override
+        public ByteBuffer next(int slot) throws IOException {
+            if (finished) {
+                return null;
+            }
+            ByteBuffer buffer = buffers[slot];
+            buffer.clear();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    finished = true;
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer.hasRemaining() ? buffer : null;
+        }
+    }
+
+    private static final class MappedSource implements Source {
+
+        private final FileChannel channel;
+        private final int batchBytes;
+        private long position;
+
+        MappedSource(FileChannel channel, int batchBytes) {
+            this.channel = channel;
+            this.batchBytes = batchBytes;
+        }
+
+        @Override
+        public ByteBuffer next(int slot) throws IOException {
+            long size = channel.size();
+            if (position >= size) {
+                return null;
+            }
+            int length = (int) Math.min(batchBytes, size - position);
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            return mapped;
+        }
+    }
+}
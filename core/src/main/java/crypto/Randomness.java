@@ -0,0 +1,265 @@
+package crypto;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread random sources, split by purpose.
+ *
+ * {@link #keyMaterial()} is a buffered view of a per-thread DRBG ({@code SecureRandom}
+ * "DRBG", falling back to the platform default). It is used for anything an attacker must not
+ * predict: prime search start points, private keys and blinding values. Bytes are drawn from
+ * the DRBG in blocks and handed out from a buffer, so small requests do not each pay for a
+ * DRBG call.
+ *
+ * {@link #fast()} is a per-thread {@link SplittableRandom}, each one split from a root that is
+ * seeded from the DRBG. It is not cryptographically secure, and is only for values that need
+ * to be random but not secret, such as Miller-Rabin witness bases.
+ *
+ * Every thread owns its sources, so no seed is shared, nothing is locked after the first use
+ * on a thread, and throughput grows with the number of threads. Both sources are plain
+ * {@link Random}s, so they work with every existing {@code Random} parameter. They must not be
+ * handed to other threads. The factories can be replaced, e.g. with seeded generators for
+ * reproducible runs.
+ */
+public class Randomness {
+
+    /** Bytes drawn from the DRBG per refill. */
+    private static final int BUFFER_BYTES = 512;
+
+    private static final SplittableRandom ROOT = new SplittableRandom(newDrbg().nextLong());
+
+    private static volatile ThreadLocal<Random> keyMaterial = ThreadLocal.withInitial(BufferedDrbg::new);
+    private static volatile ThreadLocal<Random> fast = ThreadLocal.withInitial(Randomness::splitFast);
+
+    /**
+     * @return The calling thread's cryptographically secure source, for key material
+     */
+    public static Random keyMaterial() {
+        return keyMaterial.get();
+    }
+
+    /**
+     * @return The calling thread's fast, non-cryptographic source, for public random choices
+     */
+    public static Random fast() {
+        return fast.get();
+    }
+
+    /**
+     * Replaces the factory for key-material sources. Each thread creates its source from the
+     * new factory the next time it asks for one.
+     *
+     * @param factory Creates one source per thread
+     */
+    public static void setKeyMaterialFactory(Supplier<? extends Random> factory) {
+        keyMaterial = ThreadLocal.withInitial(factory);
+    }
+
+    /**
+     * Replaces the factory for fast sources. Each thread creates its source from the new
+     * factory the next time it asks for one.
+     *
+     * @param factory Creates one source per thread
+     */
+    public static void setFastFactory(Supplier<? extends Random> factory) {
+        fast = ThreadLocal.withInitial(factory);
+    }
+
+    /**
+     * Fills limbs with uniformly random 64-bit words.
+     *
+     * @param random The source
+     * @param limbs The array to fill
+     */
+    public static void fill(Random random, long[] limbs) {
+        if (random instanceof BufferedDrbg) {
+            ((BufferedDrbg) random).fill(limbs);
+        } else {
+            for (int i = 0; i < limbs.length; i++) {
+                limbs[i] = random.nextLong();
+            }
+        }
+    }
+
+    /**
+     * Fills limbs with uniformly random 32-bit words.
+     *
+     * @param random The source
+     * @param limbs The array to fill
+     */
+    public static void fill(Random random, int[] limbs) {
+        if (random instanceof BufferedDrbg) {
+            ((BufferedDrbg) random).fill(limbs);
+        } else {
+            for (int i = 0; i < limbs.length; i++) {
+                limbs[i] = random.nextInt();
+            }
+        }
+    }
+
+    private static Random splitFast() {
+        SplittableRandom split;
+        synchronized (ROOT) {
+            split = ROOT.split();
+        }
+        return new SplittableSource(split);
+    }
+
+    private static SecureRandom newDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException ex) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * A Random that serves bytes from a buffer refilled from a DRBG. Not thread-safe.
+     */
+    static final class BufferedDrbg extends Random {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+        private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+        private final SecureRandom drbg;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position = BUFFER_BYTES;
+
+        BufferedDrbg() {
+            super(0);
+            this.drbg = newDrbg();
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            // Called by the Random constructor; the DRBG seeds itself
+        }
+
+        @Override
+        protected int next(int bits) {
+            return nextIntBits() >>> (32 - bits);
+        }
+
+        @Override
+        public int nextInt() {
+            return nextIntBits();
+        }
+
+        @Override
+        public long nextLong() {
+            require(Long.BYTES);
+            long value = (long) LONGS.get(buffer, position);
+            position += Long.BYTES;
+            return value;
+        }
+
+        @Override
+        public void nextBytes(byte[] bytes) {
+            if (bytes.length >= BUFFER_BYTES) {
+                drbg.nextBytes(bytes);
+                return;
+            }
+            require(bytes.length);
+            System.arraycopy(buffer, position, bytes, 0, bytes.length);
+            position += bytes.length;
+        }
+
+        void fill(long[] limbs) {
+            int i = 0;
+            while (i < limbs.length) {
+                require(Long.BYTES);
+                // Copy as many whole words as the buffer holds, straight into the limbs
+                int words = Math.min(limbs.length - i, (BUFFER_BYTES - position) / Long.BYTES);
+                for (int end = i + words; i < end; i++) {
+                    limbs[i] = (long) LONGS.get(buffer, position);
+                    position += Long.BYTES;
+                }
+            }
+        }
+
+        void fill(int[] limbs) {
+            int i = 0;
+            while (i < limbs.length) {
+                require(Integer.BYTES);
+                int words = Math.min(limbs.length - i, (BUFFER_BYTES - position) / Integer.BYTES);
+                for (int end = i + words; i < end; i++) {
+                    limbs[i] = (int) INTS.get(buffer, position);
+                    position += Integer.BYTES;
+                }
+            }
+        }
+
+        private int nextIntBits() {
+            require(Integer.BYTES);
+            int value = (int) INTS.get(buffer, position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (BUFFER_BYTES - position < bytes) {
+                drbg.nextBytes(buffer);
+                position = 0;
+            }
+        }
+    }
+
+    /**
+     * A Random backed by a SplittableRandom. Not thread-safe.
+     */
+    static final class SplittableSource extends Random {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableRandom random;
+
+        SplittableSource(SplittableRandom random) {
+            super(0);
+            this.random = random;
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            // Called by the Random constructor; the split generator is already seeded
+        }
+
+        @Override
+        protected int next(int bits) {
+            return (int) (random.nextLong() >>> (64 - bits));
+        }
+
+        @Override
+        public int nextInt() {
+            return random.nextInt();
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return random.nextLong();
+        }
+
+        @Override
+        public double nextDouble() {
+            return random.nextDouble();
+        }
+
+        @Override
+        public void nextBytes(byte[] bytes) {
+            random.nextBytes(bytes);
+        }
+    }
+}
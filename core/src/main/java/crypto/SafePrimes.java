@@ -0,0 +1,178 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Generates safe primes p = 2q + 1, where q is also prime, for Diffie-Hellman groups.
+ *
+ * The q candidates are sieved in windows like {@link Primes#sampleSievedPrime(int, int)}, but
+ * every small prime r removes two residue classes at once: q ≡ 0 (q divisible by r) and
+ * q ≡ (r-1)/2 (2q+1 divisible by r). Survivors must pass a base-2 Fermat test on q and then
+ * on p before anything more expensive runs. Only then is q confirmed with Miller-Rabin. p
+ * needs no separate full test: once q is prime, q > sqrt(p), 2^(p-1) ≡ 1 (mod p) and
+ * gcd(2^2 - 1, p) = 1, so p is prime by Pocklington's criterion.
+ *
+ * The parallel version runs independent searches from different random starting points on a
+ * fork-join pool; the first worker to find a safe prime stops the others.
+ */
+public class SafePrimes {
+
+    /** Number of odd q candidates covered by one sieve window. */
+    private static final int SIEVE_WINDOW = 1024;
+
+    /** Below this size of q, candidates could be table primes themselves (the largest is 17881). */
+    private static final int MIN_SIEVE_BITS = 16;
+
+    /**
+     * Generates a random safe prime with one worker per core on the common fork-join pool.
+     *
+     * @param bitLength The desired length of the safe prime p in bits (at least 3)
+     * @param k The number of rounds for the Miller-Rabin test on q
+     * @return A probable safe prime p; the subgroup order is q = (p - 1) / 2
+     * @throws IllegalArgumentException if bitLength is smaller than 3
+     */
+    public static BigInteger sampleSafePrime(int bitLength, int k) {
+        return sampleSafePrime(bitLength, k, Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generates a random safe prime using several concurrent search workers.
+     *
+     * @param bitLength The desired length of the safe prime p in bits (at least 3)
+     * @param k The number of rounds for the Miller-Rabin test on q
+     * @param workers Number of concurrent search workers (at least 1)
+     * @param pool Pool that runs the search workers
+     * @return A probable safe prime p; the subgroup order is q = (p - 1) / 2
+     * @throws IllegalArgumentException if bitLength is smaller than 3 or workers is not positive
+     */
+    public static BigInteger sampleSafePrime(int bitLength, int k, int workers, ForkJoinPool pool) {
+        if (bitLength < 3) {
+            throw new IllegalArgumentException("Safe primes have at least 3 bits");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive");
+        }
+
+        CompletableFuture<BigInteger> result = new CompletableFuture<>();
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> {
+                try {
+                    BigInteger prime = search(bitLength, k, result::isDone);
+                    if (prime != null) {
+                        result.complete(prime);
+                    }
+                } catch (RuntimeException | Error ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+        return result.join();
+    }
+
+    /**
+     * Runs one sequential safe-prime search, giving up as soon as the cancellation flag is
+     * raised. The flag is checked before every Fermat test.
+     *
+     * @param bitLength The desired length of the safe prime p in bits (at least 3)
+     * @param k The number of rounds for the Miller-Rabin test on q
+     * @param cancelled Returns true once the search should stop
+     * @return A probable safe prime p, or null if cancelled
+     */
+    static BigInteger search(int bitLength, int k, BooleanSupplier cancelled) {
+        int qBits = bitLength - 1;
+        Random random = Randomness.keyMaterial();
+
+        if (qBits < MIN_SIEVE_BITS) {
+            while (!cancelled.getAsBoolean()) {
+                BigInteger q = Primes.samplePrime(qBits, k);
+                BigInteger p = q.shiftLeft(1).add(BigInteger.ONE);
+                if (Primes.isProbablePrime(p, k)) {
+                    return p;
+                }
+            }
+            return null;
+        }
+
+        int[] residues = new int[Primes.SMALL_PRIMES.length];
+        boolean[] composite = new boolean[SIEVE_WINDOW];
+
+        while (true) {
+            // Random odd q with exactly qBits bits
+            BigInteger start = new BigInteger(qBits, random)
+                             .setBit(qBits - 1)
+                             .setBit(0);
+            for (int i = 0; i < residues.length; i++) {
+                residues[i] = start.mod(BigInteger.valueOf(Primes.SMALL_PRIMES[i])).intValue();
+            }
+
+            while (start.bitLength() == qBits) {
+                sieveWindow(residues, composite);
+
+                int rejected = 0;
+                for (int j = 0; j < SIEVE_WINDOW; j++) {
+                    if (composite[j]) {
+                        rejected++;
+                        continue;
+                    }
+                    BigInteger q = start.add(BigInteger.valueOf(2L * j));
+                    if (q.bitLength() != qBits) {
+                        break;
+                    }
+                    if (cancelled.getAsBoolean()) {
+                        Primes.countCandidates(j + 1, rejected);
+                        return null;
+                    }
+                    // Base-2 Fermat tests: one exponentiation each, rejects almost every composite
+                    if (!BigInteger.TWO.modPow(q.subtract(BigInteger.ONE), q).equals(BigInteger.ONE)) {
+                        continue;
+                    }
+                    BigInteger p = q.shiftLeft(1).add(BigInteger.ONE);
+                    if (!BigInteger.TWO.modPow(q.shiftLeft(1), p).equals(BigInteger.ONE)) {
+                        continue;
+                    }
+                    // p is prime whenever q is (Pocklington), so only q needs the full test
+                    if (Primes.isProbablePrime(q, k)) {
+                        Primes.countCandidates(j + 1, rejected);
+                        return p;
+                    }
+                }
+                Primes.countCandidates(SIEVE_WINDOW, rejected);
+
+                start = start.add(BigInteger.valueOf(2L * SIEVE_WINDOW));
+                for (int i = 0; i < residues.length; i++) {
+                    residues[i] = (int) ((residues[i] + 2L * SIEVE_WINDOW) % Primes.SMALL_PRIMES[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the offsets j in [0, SIEVE_WINDOW) for which q = start + 2j or 2q + 1 is divisible
+     * by a small prime, given the residues of start modulo each small prime.
+     *
+     * @param residues start mod SMALL_PRIMES[i] for each i
+     * @param composite Output flags, one per odd offset in the window
+     */
+    static void sieveWindow(int[] residues, boolean[] composite) {
+        Arrays.fill(composite, false);
+        for (int i = 0; i < residues.length; i++) {
+            int r = Primes.SMALL_PRIMES[i];
+            long halfInverse = (r + 1) / 2;  // 2^(-1) mod r
+            // start + 2j ≡ 0 (mod r)
+            int j = (int) ((long) ((r - residues[i]) % r) * halfInverse % r);
+            for (; j < composite.length; j += r) {
+                composite[j] = true;
+            }
+            // start + 2j ≡ (r-1)/2 (mod r), i.e. 2q + 1 ≡ 0
+            j = (int) ((long) (((r - 1) / 2 - residues[i] + r) % r) * halfInverse % r);
+            for (; j < composite.length; j += r) {
+                composite[j] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package crypto;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computes Diffie-Hellman shared secrets with many peers in one group, in parallel.
+ *
+ * A batch is split into contiguous chunks (several per task slot so that uneven chunks even
+ * out), and the chunks run on the caller-supplied executor. Every shared key is computed with
+ * {@link DiffieHelman#computeSharedKey(BigInteger, BigInteger, BigInteger)}, so the results
+ * are identical to the single-call path. Throughput counters accumulate across batches.
+ */
+public class SharedKeyBatch {
+
+    /** Chunks per task slot. */
+    private static final int CHUNKS_PER_TASK = 4;
+
+    private final BigInteger p;
+    private final BigInteger q;
+    private final boolean validatePeers;
+    private final Executor executor;
+    private final int parallelism;
+
+    private final LongAdder peers = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+
+    /**
+     * @param p The prime modulus.
+     * @param q The order of the subgroup, used for peer validation.
+     * @param validatePeers Whether to reject peer keys outside the order-q subgroup
+     *        (see {@link DiffieHelman#isValidPublicKey}).
+     * @param executor Executor that runs the chunks.
+     * @param parallelism Number of chunks that can run at once (at least 1).
+     * @throws IllegalArgumentException if parallelism is not positive.
+     */
+    public SharedKeyBatch(BigInteger p, BigInteger q, boolean validatePeers, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.p = p;
+        this.q = q;
+        this.validatePeers = validatePeers;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Computes the shared secret with every peer.
+     *
+     * @param peerPublicKeys The public keys of the other parties.
+     * @param privateKey The private key of the current party.
+     * @return Shared keys in the same order as the peers; an entry is null if validation
+     *         is enabled and that peer's key was rejected.
+     */
+    public List<BigInteger> computeSharedKeys(List<BigInteger> peerPublicKeys, BigInteger privateKey) {
+        long start = System.nanoTime();
+        int n = peerPublicKeys.size();
+        BigInteger[] results = new BigInteger[n];
+        int chunk = Math.max(1, (n + parallelism * CHUNKS_PER_TASK - 1) / (parallelism * CHUNKS_PER_TASK));
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < n; from += chunk) {
+            final int lo = from;
+            final int hi = Math.min(n, from + chunk);
+            futures.add(CompletableFuture.runAsync(() -> computeChunk(peerPublicKeys, privateKey, results, lo, hi), executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+
+        peers.add(n);
+        batches.increment();
+        batchNanos.add(System.nanoTime() - start);
+        return Arrays.asList(results);
+    }
+
+    private void computeChunk(List<BigInteger> peerPublicKeys, BigInteger privateKey, BigInteger[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            BigInteger peer = peerPublicKeys.get(i);
+            if (validatePeers && !DiffieHelman.isValidPublicKey(peer, p, q)) {
+                rejected.increment();
+                continue;
+            }
+            results[i] = DiffieHelman.computeSharedKey(peer, privateKey, p);
+        }
+    }
+
+    /** @return Total number of peer keys processed, including rejected ones */
+    public long peersProcessed() {
+        return peers.sum();
+    }
+
+    /** @return Number of peer keys rejected by validation */
+    public long peersRejected() {
+        return rejected.sum();
+    }
+
+    /** @return Number of batches processed */
+    public long batchesProcessed() {
+        return batches.sum();
+    }
+
+    /** @return Peers processed per second of batch wall time, or 0 before the first batch */
+    public double throughput() {
+        long nanos = batchNanos.sum();
+        return nanos == 0 ? 0.0 : peers.sum() * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,266 @@
+package crypto;
+
+import java.util.Arrays;
+
+/**
+ * X25519 elliptic-curve Diffie-Hellman (RFC 7748) with the same private key / public key /
+ * shared key shape as {@link DiffieHelman}. At about 128-bit security it stands in for a
+ * 3072-bit finite-field group, with 32-byte keys and no parameter generation.
+ *
+ * Field elements of GF(2^255 - 19) are long[16] arrays of 16-bit limbs, as in TweetNaCl.
+ * Limbs may temporarily exceed 16 bits or go negative between carries. All operations run
+ * a fixed sequence of steps that does not depend on secret data. Conditional swaps use masks,
+ * not branches. Each thread keeps one {@link Workspace}, so the Montgomery ladder and the
+ * final inversion allocate nothing.
+ */
+public class X25519 {
+
+    /** Length of scalars, u-coordinates and shared secrets in bytes. */
+    public static final int KEY_LENGTH = 32;
+
+    private static final byte[] BASE_POINT = new byte[KEY_LENGTH];
+
+    static {
+        BASE_POINT[0] = 9;
+    }
+
+    /** (A - 2) / 4 = 121665 for curve25519, as a field element. */
+    private static final long[] A24 = { 0xDB41, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+
+    private static final ThreadLocal<Workspace> WORKSPACES = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * Generates a private key: 32 random bytes. The bits RFC 7748 requires to be set or
+     * cleared are fixed when the scalar is used.
+     *
+     * @return A new private key
+     */
+    public static byte[] generatePrivateKey() {
+        byte[] privateKey = new byte[KEY_LENGTH];
+        Randomness.keyMaterial().nextBytes(privateKey);
+        return privateKey;
+    }
+
+    /**
+     * Computes the public key X25519(privateKey, 9).
+     *
+     * @param privateKey The 32-byte private key
+     * @return The 32-byte public key
+     * @throws IllegalArgumentException if the private key is not 32 bytes long
+     */
+    public static byte[] computePublicKey(byte[] privateKey) {
+        return scalarMult(privateKey, BASE_POINT);
+    }
+
+    /**
+     * Computes the shared secret X25519(privateKey, publicKey).
+     *
+     * @param publicKey The other party's 32-byte public key
+     * @param privateKey The 32-byte private key of the current party
+     * @return The 32-byte shared secret
+     * @throws IllegalArgumentException if a key is not 32 bytes long, or the public key is a
+     *         point of small order, which would make the shared secret all zeros
+     */
+    public static byte[] computeSharedKey(byte[] publicKey, byte[] privateKey) {
+        long start = CryptoMetrics.start();
+        byte[] sharedKey = scalarMult(privateKey, publicKey);
+        CryptoMetrics.stop(CryptoMetrics.Operation.SHARED_KEY, start);
+
+        int bits = 0;
+        for (byte b : sharedKey) {
+            bits |= b;
+        }
+        if (bits == 0) {
+            throw new IllegalArgumentException("Public key has small order");
+        }
+        return sharedKey;
+    }
+
+    /**
+     * The X25519 function of RFC 7748, section 5: multiplies the point with u-coordinate u
+     * by the clamped scalar k with the Montgomery ladder.
+     *
+     * @param k The 32-byte little-endian scalar
+     * @param u The 32-byte little-endian u-coordinate (the top bit is ignored)
+     * @return The 32-byte little-endian u-coordinate of the product
+     * @throws IllegalArgumentException if k or u is not 32 bytes long
+     */
+    public static byte[] scalarMult(byte[] k, byte[] u) {
+        if (k.length != KEY_LENGTH || u.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("Scalar and u-coordinate must be 32 bytes long");
+        }
+        byte[] out = new byte[KEY_LENGTH];
+        WORKSPACES.get().ladder(k, u, out);
+        return out;
+    }
+
+    /**
+     * The field elements and product buffer of one ladder, reused by each thread across calls.
+     */
+    private static final class Workspace {
+
+        private final byte[] scalar = new byte[KEY_LENGTH];
+        private final long[] x = new long[16];
+        private final long[] a = new long[16];
+        private final long[] b = new long[16];
+        private final long[] c = new long[16];
+        private final long[] d = new long[16];
+        private final long[] e = new long[16];
+        private final long[] f = new long[16];
+        private final long[] product = new long[31];
+
+        void ladder(byte[] k, byte[] u, byte[] out) {
+            System.arraycopy(k, 0, scalar, 0, KEY_LENGTH);
+            scalar[31] = (byte) ((scalar[31] & 127) | 64);
+            scalar[0] &= (byte) 248;
+
+            unpack(x, u);
+            System.arraycopy(x, 0, b, 0, 16);
+            Arrays.fill(a, 0);
+            Arrays.fill(c, 0);
+            Arrays.fill(d, 0);
+            a[0] = 1;
+            d[0] = 1;
+
+            // (a : c) is the running point, (b : d) the running point plus x
+            for (int i = 254; i >= 0; i--) {
+                int bit = (scalar[i >>> 3] >>> (i & 7)) & 1;
+                swap(a, b, bit);
+                swap(c, d, bit);
+                add(e, a, c);
+                sub(a, a, c);
+                add(c, b, d);
+                sub(b, b, d);
+                multiply(d, e, e);
+                multiply(f, a, a);
+                multiply(a, c, a);
+                multiply(c, b, e);
+                add(e, a, c);
+                sub(a, a, c);
+                multiply(b, a, a);
+                sub(c, d, f);
+                multiply(a, c, A24);
+                add(a, a, d);
+                multiply(c, c, a);
+                multiply(a, d, f);
+                multiply(d, b, x);
+                multiply(b, e, e);
+                swap(a, b, bit);
+                swap(c, d, bit);
+            }
+
+            // u = a / c
+            invert(e, c);
+            multiply(a, a, e);
+            pack(out, a, f);
+            Arrays.fill(scalar, (byte) 0);
+        }
+
+        /**
+         * o = a * b, fully carried. o may alias a or b.
+         */
+        void multiply(long[] o, long[] a, long[] b) {
+            long[] t = product;
+            Arrays.fill(t, 0);
+            for (int i = 0; i < 16; i++) {
+                for (int j = 0; j < 16; j++) {
+                    t[i + j] += a[i] * b[j];
+                }
+            }
+            // 2^256 ≡ 38 (mod 2^255 - 19)
+            for (int i = 0; i < 15; i++) {
+                t[i] += 38 * t[i + 16];
+            }
+            System.arraycopy(t, 0, o, 0, 16);
+            carry(o);
+            carry(o);
+        }
+
+        /**
+         * o = z^(p - 2) = z^(-1) by Fermat, with the fixed square-and-multiply chain of TweetNaCl.
+         * o must not alias z.
+         */
+        void invert(long[] o, long[] z) {
+            System.arraycopy(z, 0, o, 0, 16);
+            for (int i = 253; i >= 0; i--) {
+                multiply(o, o, o);
+                if (i != 2 && i != 4) {
+                    multiply(o, o, z);
+                }
+            }
+        }
+    }
+
+    private static void add(long[] o, long[] a, long[] b) {
+        for (int i = 0; i < 16; i++) {
+            o[i] = a[i] + b[i];
+        }
+    }
+
+    private static void sub(long[] o, long[] a, long[] b) {
+        for (int i = 0; i < 16; i++) {
+            o[i] = a[i] - b[i];
+        }
+    }
+
+    /**
+     * Brings every limb into [0, 2^16), folding the carry out of the top limb back into the
+     * bottom one times 38.
+     */
+    private static void carry(long[] o) {
+        for (int i = 0; i < 16; i++) {
+            long c = o[i] >> 16;
+            o[i] -= c << 16;
+            if (i < 15) {
+                o[i + 1] += c;
+            } else {
+                o[0] += 38 * c;
+            }
+        }
+    }
+
+    /**
+     * Swaps p and q when bit is 1 and leaves them alone when it is 0, without branching on bit.
+     */
+    private static void swap(long[] p, long[] q, int bit) {
+        long mask = -bit;
+        for (int i = 0; i < 16; i++) {
+            long t = mask & (p[i] ^ q[i]);
+            p[i] ^= t;
+            q[i] ^= t;
+        }
+    }
+
+    private static void unpack(long[] o, byte[] n) {
+        for (int i = 0; i < 16; i++) {
+            o[i] = (n[2 * i] & 0xFF) + ((long) (n[2 * i + 1] & 0xFF) << 8);
+        }
+        o[15] &= 0x7FFF;
+    }
+
+    /**
+     * Writes the canonical little-endian encoding of n, reduced below 2^255 - 19. Destroys n;
+     * m is scratch space.
+     */
+    private static void pack(byte[] o, long[] n, long[] m) {
+        carry(n);
+        carry(n);
+        carry(n);
+        // Subtract p twice, keeping the difference whenever it does not borrow
+        for (int j = 0; j < 2; j++) {
+            m[0] = n[0] - 0xFFED;
+            for (int i = 1; i < 15; i++) {
+                m[i] = n[i] - 0xFFFF - ((m[i - 1] >> 16) & 1);
+                m[i - 1] &= 0xFFFF;
+            }
+            m[15] = n[15] - 0x7FFF - ((m[14] >> 16) & 1);
+            int borrow = (int) ((m[15] >> 16) & 1);
+            m[14] &= 0xFFFF;
+            swap(n, m, 1 - borrow);
+        }
+        for (int i = 0; i < 16; i++) {
+            o[2 * i] = (byte) n[i];
+            o[2 * i + 1] = (byte) (n[i] >> 8);
+        }
+    }
+}
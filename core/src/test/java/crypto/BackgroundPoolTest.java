@@ -0,0 +1,44 @@
+package crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class BackgroundPoolTest {
+
+    private static final class TestPool extends BackgroundPool<Integer> {
+
+        TestPool(Supplier<Integer> generator) {
+            super("test-pool", generator, 4, 1, 1);
+            start();
+        }
+    }
+
+    @Test
+    void workerSurvivesFailingGenerations() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Integer> generator = () -> {
+            int call = calls.getAndIncrement();
+            if (call == 0) {
+                throw new IllegalStateException("first call fails");
+            }
+            if (call == 1) {
+                return null;
+            }
+            return call;
+        };
+        try (TestPool pool = new TestPool(generator)) {
+            Integer value = pool.take(10, TimeUnit.SECONDS);
+            assertEquals(2, value);
+            assertEquals(2, pool.failureCount());
+            assertInstanceOf(IllegalStateException.class, pool.lastFailure());
+            assertTrue(pool.generatedCount() >= 1);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DHParameterStoreTest {
+
+    @Test
+    void concurrentCallersShareOneGeneration() {
+        DHParameterStore store = new DHParameterStore();
+        int threads = 8;
+        CountDownLatch ready = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<DHGroup>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    ready.countDown();
+                    try {
+                        ready.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return store.getOrGenerate(256, 20);
+                }, executor));
+            }
+            DHGroup first = futures.get(0).join();
+            for (CompletableFuture<DHGroup> future : futures) {
+                assertSame(first, future.join());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, store.groups().stream().filter(group -> group.bitLength() == 256).count());
+    }
+
+    @Test
+    void savedGroupsLoadBack(@TempDir Path dir) throws IOException {
+        DHParameterStore store = new DHParameterStore();
+        DHGroup group = store.getOrGenerate(128, 20);
+        Path file = dir.resolve("groups.bin");
+        store.save(file);
+
+        DHGroup loaded = DHParameterStore.load(file).get(128);
+        assertEquals(group.getP(), loaded.getP());
+        assertEquals(group.getG(), loaded.getG());
+        assertTrue(loaded.isValid(20));
+    }
+}
@@ -0,0 +1,146 @@
+package crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link DeterministicMillerRabin} and {@link BailliePSW} on strong pseudoprimes and
+ * Carmichael numbers, and differential sweeps against {@link BigInteger#isProbablePrime}.
+ */
+class DeterministicPrimalityTest {
+
+    private static final long SEED = 20240610L;
+
+    /** Smallest strong pseudoprimes to the first 1, 2, ..., 12 prime bases, and beyond. */
+    private static final String[] STRONG_PSEUDOPRIMES = {
+        "2047",                         // base 2
+        "1373653",                      // bases 2, 3
+        "25326001",                     // bases 2, 3, 5
+        "3215031751",                   // bases 2, 3, 5, 7
+        "2152302898747",                // bases 2 to 11
+        "3474749660383",                // bases 2 to 13
+        "341550071728321",              // bases 2 to 17
+        "3825123056546413051",          // bases 2 to 23
+        "318665857834031151167461",     // bases 2 to 37, above 2^64
+        "3317044064679887385961981",    // bases 2 to 37, above 2^64
+    };
+
+    private static final long[] CARMICHAEL_NUMBERS = {
+        561, 1105, 1729, 2465, 2821, 6601, 8911, 41041, 825265, 321197185,
+        5394826801L, 232250619601L, 9746347772161L
+    };
+
+    /** Strong Lucas pseudoprimes with Selfridge's parameters. */
+    private static final long[] STRONG_LUCAS_PSEUDOPRIMES = { 5459, 5777, 10877, 16109, 18971, 22499, 24569 };
+
+    @Test
+    void rejectsStrongPseudoprimes() {
+        for (String value : STRONG_PSEUDOPRIMES) {
+            BigInteger n = new BigInteger(value);
+            if (n.bitLength() <= 64) {
+                assertFalse(DeterministicMillerRabin.isPrime(n.longValue()), value);
+            }
+            assertFalse(BailliePSW.isProbablePrime(n), value);
+            assertFalse(PrimalityTest.MILLER_RABIN.isProbablePrime(n, 40), value);
+        }
+    }
+
+    @Test
+    void rejectsCarmichaelNumbers() {
+        for (long n : CARMICHAEL_NUMBERS) {
+            assertFalse(DeterministicMillerRabin.isPrime(n), Long.toString(n));
+            assertFalse(BailliePSW.isProbablePrime(BigInteger.valueOf(n)), Long.toString(n));
+        }
+        // Chernick's (6k + 1)(12k + 1)(18k + 1) is a Carmichael number whenever all three factors are prime
+        int found = 0;
+        for (BigInteger k = BigInteger.ONE.shiftLeft(30); found < 5; k = k.add(BigInteger.ONE)) {
+            BigInteger a = k.multiply(BigInteger.valueOf(6)).add(BigInteger.ONE);
+            BigInteger b = k.multiply(BigInteger.valueOf(12)).add(BigInteger.ONE);
+            BigInteger c = k.multiply(BigInteger.valueOf(18)).add(BigInteger.ONE);
+            if (a.isProbablePrime(64) && b.isProbablePrime(64) && c.isProbablePrime(64)) {
+                BigInteger n = a.multiply(b).multiply(c);
+                assertFalse(BailliePSW.isProbablePrime(n), n.toString());
+                assertFalse(PrimalityTest.MILLER_RABIN.isProbablePrime(n, 40), n.toString());
+                found++;
+            }
+        }
+    }
+
+    @Test
+    void strongLucasTestAcceptsItsPseudoprimesButBailliePSWDoesNot() {
+        for (long n : STRONG_LUCAS_PSEUDOPRIMES) {
+            assertTrue(BailliePSW.strongLucasTest(BigInteger.valueOf(n)), Long.toString(n));
+            assertFalse(BailliePSW.isProbablePrime(BigInteger.valueOf(n)), Long.toString(n));
+        }
+    }
+
+    @Test
+    void decidesEdgeCases() {
+        assertFalse(DeterministicMillerRabin.isPrime(0));
+        assertFalse(DeterministicMillerRabin.isPrime(1));
+        assertTrue(DeterministicMillerRabin.isPrime(2));
+        assertTrue(DeterministicMillerRabin.isPrime(37));
+        assertFalse(DeterministicMillerRabin.isPrime(41 * 41));
+        assertTrue(DeterministicMillerRabin.isPrime(Long.MAX_VALUE - 24));         // 2^63 - 25
+        assertFalse(DeterministicMillerRabin.isPrime(Long.MAX_VALUE));             // 2^63 - 1
+        assertTrue(DeterministicMillerRabin.isPrime(-59));                         // 2^64 - 59
+        assertFalse(DeterministicMillerRabin.isPrime(-1));                         // 2^64 - 1
+        assertFalse(DeterministicMillerRabin.isPrime(4294967291L * 4294967279L));  // product of the two largest 32-bit primes
+        assertFalse(BailliePSW.isProbablePrime(BigInteger.ZERO));
+        assertFalse(BailliePSW.isProbablePrime(BigInteger.valueOf(-7)));
+    }
+
+    @Test
+    void matchesBigIntegerBelowOneMillion() {
+        for (int n = 0; n < 1_000_000; n++) {
+            boolean expected = BigInteger.valueOf(n).isProbablePrime(64);
+            assertEquals(expected, DeterministicMillerRabin.isPrime(n), Integer.toString(n));
+        }
+        for (int n = 0; n < 20_000; n++) {
+            BigInteger value = BigInteger.valueOf(n);
+            assertEquals(value.isProbablePrime(64), BailliePSW.isProbablePrime(value), Integer.toString(n));
+        }
+    }
+
+    @Test
+    void matchesBigIntegerOnRandomUnsigned64BitValues() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 200_000; i++) {
+            long n = random.nextLong() | 1;
+            BigInteger value = new BigInteger(Long.toUnsignedString(n));
+            assertEquals(value.isProbablePrime(64), DeterministicMillerRabin.isPrime(n), Long.toUnsignedString(n));
+        }
+        // Random 64-bit primes and products of two 32-bit primes, which pass far more often
+        for (int i = 0; i < 2_000; i++) {
+            BigInteger prime = BigInteger.probablePrime(64, random);
+            assertTrue(DeterministicMillerRabin.isPrime(prime.longValue()), prime.toString());
+            BigInteger semiprime = BigInteger.probablePrime(32, random).multiply(BigInteger.probablePrime(32, random));
+            assertFalse(DeterministicMillerRabin.isPrime(semiprime.longValue()), semiprime.toString());
+        }
+    }
+
+    @Test
+    void bailliePSWMatchesBigIntegerAbove64Bits() {
+        Random random = new Random(SEED + 1);
+        for (int i = 0; i < 5_000; i++) {
+            BigInteger n = new BigInteger(65 + random.nextInt(448), random).setBit(0);
+            assertEquals(n.isProbablePrime(64), BailliePSW.isProbablePrime(n), n.toString());
+        }
+        for (int i = 0; i < 200; i++) {
+            int bits = 65 + random.nextInt(448);
+            BigInteger prime = BigInteger.probablePrime(bits, random);
+            assertTrue(BailliePSW.isProbablePrime(prime), prime.toString());
+            assertTrue(PrimalityTest.BAILLIE_PSW.isProbablePrime(prime, 1), prime.toString());
+            BigInteger semiprime = prime.multiply(BigInteger.probablePrime(bits, random));
+            assertFalse(BailliePSW.isProbablePrime(semiprime), semiprime.toString());
+            // A perfect square has no Selfridge parameter and must be rejected up front
+            assertFalse(BailliePSW.isProbablePrime(prime.multiply(prime)), prime + "^2");
+        }
+    }
+}
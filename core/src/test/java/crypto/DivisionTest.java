@@ -0,0 +1,96 @@
+package crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Differential tests of {@link Division} against {@link BigInteger#divideAndRemainder}.
+ */
+class DivisionTest {
+
+    private static final long SEED = 20240607L;
+
+    @Test
+    void matchesBigIntegerOnRandomOperands() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 2000; i++) {
+            BigInteger x = new BigInteger(1 + random.nextInt(2048), random);
+            BigInteger y = new BigInteger(1 + random.nextInt(1024), random).add(BigInteger.ONE);
+            assertDivides(x, y);
+        }
+    }
+
+    @Test
+    void matchesBigIntegerOnSingleWordDivisors() {
+        Random random = new Random(SEED + 1);
+        for (int i = 0; i < 500; i++) {
+            BigInteger x = new BigInteger(1 + random.nextInt(1024), random);
+            BigInteger y = BigInteger.valueOf(random.nextInt() & 0xFFFFFFFFL).add(BigInteger.ONE);
+            assertDivides(x, y);
+        }
+        assertDivides(allOnes(1024), allOnes(32));
+        assertDivides(allOnes(1024), BigInteger.ONE);
+    }
+
+    @Test
+    void matchesBigIntegerPastTheBurnikelZieglerThreshold() {
+        Random random = new Random(SEED + 2);
+        int thresholdBits = 32 * Division.BURNIKEL_ZIEGLER_THRESHOLD;
+        int offsetBits = 32 * Division.BURNIKEL_ZIEGLER_OFFSET;
+        for (int i = 0; i < 50; i++) {
+            int yBits = thresholdBits + random.nextInt(4 * thresholdBits);
+            int xBits = yBits + offsetBits + random.nextInt(8 * thresholdBits);
+            BigInteger y = new BigInteger(yBits, random).setBit(yBits - 1);
+            BigInteger x = new BigInteger(xBits, random).setBit(xBits - 1);
+            assertDivides(x, y);
+            // A remainder of y - 1 exercises the quotient digit corrections
+            assertDivides(x.multiply(y).add(y.subtract(BigInteger.ONE)), y);
+        }
+    }
+
+    @Test
+    void matchesBigIntegerOnAllOnesAndUnbalancedOperands() {
+        Random random = new Random(SEED + 3);
+        int[] sizes = { 33, 64, 65, 1000, 2560, 2561, 4000, 8191, 20000 };
+        for (int xBits : sizes) {
+            for (int yBits : sizes) {
+                assertDivides(allOnes(xBits), allOnes(yBits));
+                assertDivides(allOnes(xBits), BigInteger.ONE.shiftLeft(yBits - 1));
+                assertDivides(BigInteger.ONE.shiftLeft(xBits), allOnes(yBits));
+                assertDivides(new BigInteger(xBits, random), allOnes(yBits));
+            }
+        }
+        // Very unbalanced: a huge dividend over a divisor just above one word
+        assertDivides(allOnes(100_000), allOnes(33));
+        assertDivides(new BigInteger(100_000, random), new BigInteger(40, random).setBit(39));
+    }
+
+    @Test
+    void smallDividendsAndExactQuotients() {
+        BigInteger y = allOnes(3000);
+        assertDivides(BigInteger.ZERO, y);
+        assertDivides(y.subtract(BigInteger.ONE), y);
+        assertDivides(y, y);
+        assertDivides(y.multiply(y), y);
+    }
+
+    @Test
+    void rejectsZeroAndNegativeOperands() {
+        assertThrows(ArithmeticException.class, () -> Division.divide(BigInteger.TEN, BigInteger.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> Division.divide(BigInteger.TEN.negate(), BigInteger.TWO));
+        assertThrows(IllegalArgumentException.class, () -> Division.divide(BigInteger.TEN, BigInteger.TWO.negate()));
+    }
+
+    private static void assertDivides(BigInteger x, BigInteger y) {
+        assertArrayEquals(x.divideAndRemainder(y), Division.divide(x, y), () -> x.bitLength() + " / " + y.bitLength() + " bits");
+    }
+
+    private static BigInteger allOnes(int bits) {
+        return BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+    }
+}
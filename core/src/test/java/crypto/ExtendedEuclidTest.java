@@ -0,0 +1,131 @@
+package crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Differential tests of {@link Arithmetic#ExtendedEuclid} against {@link BigInteger#gcd},
+ * with the Bezout identity checked on every result.
+ */
+class ExtendedEuclidTest {
+
+    private static final long SEED = 20240608L;
+
+    @Test
+    void matchesBigIntegerOnRandomSignedOperands() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 3000; i++) {
+            BigInteger a = signed(new BigInteger(random.nextInt(1500), random), random);
+            BigInteger b = signed(new BigInteger(random.nextInt(1500), random), random);
+            assertBezout(a, b);
+        }
+    }
+
+    @Test
+    void matchesBigIntegerAroundTheWordSizes() {
+        Random random = new Random(SEED + 1);
+        int[] sizes = { 1, 2, 31, 32, 33, 55, 56, 57, 61, 62, 63, 64, 65, 127, 128, 129 };
+        for (int aBits : sizes) {
+            for (int bBits : sizes) {
+                for (int i = 0; i < 10; i++) {
+                    assertBezout(signed(new BigInteger(aBits, random), random), signed(new BigInteger(bBits, random), random));
+                }
+            }
+        }
+    }
+
+    @Test
+    void findsLargeCommonFactors() {
+        Random random = new Random(SEED + 2);
+        for (int i = 0; i < 200; i++) {
+            BigInteger g = new BigInteger(1 + random.nextInt(2000), random).add(BigInteger.ONE);
+            BigInteger a = signed(g.multiply(new BigInteger(random.nextInt(2000), random)), random);
+            BigInteger b = signed(g.multiply(new BigInteger(random.nextInt(200), random)), random);
+            assertBezout(a, b);
+        }
+    }
+
+    @Test
+    void handlesAllOnesAndUnbalancedOperands() {
+        Random random = new Random(SEED + 3);
+        int[] sizes = { 1, 56, 64, 100, 1024, 3000, 4096 };
+        for (int m : sizes) {
+            for (int n : sizes) {
+                // gcd(2^m - 1, 2^n - 1) = 2^gcd(m, n) - 1
+                assertBezout(allOnes(m), allOnes(n));
+                assertBezout(allOnes(m).negate(), allOnes(n));
+                assertBezout(allOnes(m), BigInteger.ONE.shiftLeft(n));
+            }
+        }
+        assertBezout(new BigInteger(20000, random), new BigInteger(40, random));
+        assertBezout(new BigInteger(20000, random), BigInteger.valueOf(3));
+    }
+
+    @Test
+    void handlesConsecutiveFibonacciNumbers() {
+        // The worst case for Euclid: every quotient is 1
+        BigInteger a = BigInteger.ONE;
+        BigInteger b = BigInteger.ONE;
+        for (int i = 0; i < 3000; i++) {
+            BigInteger next = a.add(b);
+            a = b;
+            b = next;
+        }
+        assertBezout(a, b);
+        assertBezout(b, a.negate());
+    }
+
+    @Test
+    void handlesZeroOperands() {
+        assertBezout(BigInteger.ZERO, BigInteger.ZERO);
+        assertBezout(BigInteger.ZERO, BigInteger.valueOf(-7));
+        assertBezout(BigInteger.valueOf(-7), BigInteger.ZERO);
+        assertBezout(allOnes(500), BigInteger.ZERO);
+    }
+
+    @Test
+    void modInversesMatchBigInteger() {
+        Random random = new Random(SEED + 4);
+        for (int i = 0; i < 200; i++) {
+            BigInteger m = new BigInteger(2 + random.nextInt(2000), random).setBit(0).add(BigInteger.TWO);
+            BigInteger[] values = new BigInteger[1 + random.nextInt(20)];
+            for (int j = 0; j < values.length; j++) {
+                BigInteger value;
+                do {
+                    value = new BigInteger(m.bitLength() + 8, random);
+                } while (!value.gcd(m).equals(BigInteger.ONE));
+                values[j] = value;
+                assertEquals(value.modInverse(m), Arithmetic.computeModInverse(value, m));
+            }
+            BigInteger[] expected = new BigInteger[values.length];
+            for (int j = 0; j < values.length; j++) {
+                expected[j] = values[j].modInverse(m);
+            }
+            assertArrayEquals(expected, Arithmetic.batchModInverse(values, m));
+        }
+        BigInteger m = allOnes(64);
+        assertThrows(ArithmeticException.class, () -> Arithmetic.computeModInverse(BigInteger.valueOf(3), m));
+        assertThrows(ArithmeticException.class,
+                () -> Arithmetic.batchModInverse(new BigInteger[] { BigInteger.TWO, BigInteger.valueOf(5) }, m));
+    }
+
+    private static void assertBezout(BigInteger a, BigInteger b) {
+        BigInteger[] result = Arithmetic.ExtendedEuclid(a, b);
+        assertEquals(a.gcd(b), result[0], () -> "gcd of " + a + " and " + b);
+        assertEquals(result[0], a.multiply(result[1]).add(b.multiply(result[2])), () -> "Bezout identity for " + a + " and " + b);
+    }
+
+    private static BigInteger signed(BigInteger x, Random random) {
+        return random.nextBoolean() ? x.negate() : x;
+    }
+
+    private static BigInteger allOnes(int bits) {
+        return BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+    }
+}
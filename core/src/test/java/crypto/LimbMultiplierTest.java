@@ -0,0 +1,128 @@
+package crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Differential tests of {@link LimbMultiplier} and {@link Arithmetic#karatsuba} against
+ * {@link BigInteger#multiply}.
+ */
+class LimbMultiplierTest {
+
+    private static final long SEED = 20240609L;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void limbProductsMatchBigIntegerAcrossTheKaratsubaCutoff() {
+        Random random = new Random(SEED);
+        int cutoff = LimbMultiplier.KARATSUBA_CUTOFF;
+        for (int i = 0; i < 500; i++) {
+            int aLen = 1 + random.nextInt(8 * cutoff);
+            int bLen = 1 + random.nextInt(8 * cutoff);
+            assertLimbProduct(randomLimbs(aLen, random), randomLimbs(bLen, random));
+        }
+        for (int aLen : new int[] { cutoff - 1, cutoff, cutoff + 1, 2 * cutoff + 1, 1000 }) {
+            for (int bLen : new int[] { 1, 2, cutoff - 1, cutoff, cutoff + 1, 333 }) {
+                assertLimbProduct(allOnes(aLen), allOnes(bLen));
+                assertLimbProduct(randomLimbs(aLen, random), allOnes(bLen));
+            }
+        }
+    }
+
+    @Test
+    void limbProductsMatchBigIntegerPastTheToomCutoff() {
+        Random random = new Random(SEED + 1);
+        int cutoff = LimbMultiplier.TOOM3_CUTOFF;
+        assertLimbProduct(randomLimbs(cutoff, random), randomLimbs(cutoff, random));
+        assertLimbProduct(randomLimbs(cutoff + 1, random), randomLimbs(3 * cutoff, random));
+        assertLimbProduct(allOnes(cutoff + 7), allOnes(cutoff + 3));
+        // Unbalanced: only one operand past the cutoff stays on the Karatsuba tier
+        assertLimbProduct(randomLimbs(4 * cutoff, random), randomLimbs(5, random));
+    }
+
+    @Test
+    void parallelProductsMatchBigInteger() {
+        Random random = new Random(SEED + 2);
+        int bits = 32 * LimbMultiplier.PARALLEL_CUTOFF;
+        assertProduct(new BigInteger(bits, random), new BigInteger(bits, random));
+        assertProduct(new BigInteger(3 * bits, random), new BigInteger(bits + 1, random).negate());
+        assertProduct(allOnesInteger(4 * bits), allOnesInteger(4 * bits + 31));
+        assertProduct(allOnesInteger(5 * bits).negate(), allOnesInteger(2 * bits).negate());
+        // Below the parallel cutoff, and unbalanced operands
+        assertProduct(new BigInteger(bits - 32, random), new BigInteger(bits, random));
+        assertProduct(new BigInteger(8 * bits, random), BigInteger.valueOf(-3));
+        assertProduct(BigInteger.ZERO, new BigInteger(bits, random));
+    }
+
+    @Test
+    void toom3MatchesBigIntegerOnSignedOperands() {
+        Random random = new Random(SEED + 3);
+        for (int i = 0; i < 20; i++) {
+            BigInteger x = new BigInteger(1 + random.nextInt(200_000), random);
+            BigInteger y = new BigInteger(1 + random.nextInt(200_000), random);
+            x = random.nextBoolean() ? x.negate() : x;
+            y = random.nextBoolean() ? y.negate() : y;
+            assertEquals(x.multiply(y), LimbMultiplier.toom3(x, y));
+        }
+    }
+
+    @Test
+    void karatsubaMatchesBigInteger() {
+        Random random = new Random(SEED + 4);
+        for (int i = 0; i < 100; i++) {
+            BigInteger x = new BigInteger(1 + random.nextInt(20_000), random);
+            BigInteger y = new BigInteger(1 + random.nextInt(20_000), random);
+            assertEquals(x.multiply(y), Arithmetic.karatsuba(x, y));
+        }
+        assertEquals(allOnesInteger(10_000).multiply(allOnesInteger(3_000)),
+                Arithmetic.karatsuba(allOnesInteger(10_000), allOnesInteger(3_000)));
+    }
+
+    private static void assertProduct(BigInteger x, BigInteger y) {
+        assertEquals(x.multiply(y), LimbMultiplier.multiply(x, y, pool), () -> x.bitLength() + " x " + y.bitLength() + " bits");
+    }
+
+    private static void assertLimbProduct(int[] a, int[] b) {
+        BigInteger expected = LimbMultiplier.fromLimbs(a).multiply(LimbMultiplier.fromLimbs(b));
+        assertArrayEquals(LimbMultiplier.toLimbs(expected, a.length + b.length), LimbMultiplier.multiply(a, b),
+                () -> a.length + " x " + b.length + " limbs");
+    }
+
+    private static int[] randomLimbs(int n, Random random) {
+        int[] limbs = new int[n];
+        for (int i = 0; i < n; i++) {
+            limbs[i] = random.nextInt();
+        }
+        return limbs;
+    }
+
+    private static int[] allOnes(int n) {
+        int[] limbs = new int[n];
+        Arrays.fill(limbs, -1);
+        return limbs;
+    }
+
+    private static BigInteger allOnesInteger(int bits) {
+        return BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+    }
+}
@@ -0,0 +1,95 @@
+package crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link X25519} against the test vectors of RFC 7748.
+ */
+class X25519Test {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Test
+    void scalarMultMatchesSection52Vectors() {
+        assertScalarMult(
+                "a546e36bf0527c9d3b16154b82465edd62144c0ac1fc5a18506a2244ba449ac4",
+                "e6db6867583030db3594c1a424b15f7c726624ec26b3353b10a903a6d0ab1c4c",
+                "c3da55379de9c6908e94ea4df28d084f32eccf03491c71f754b4075577a28552");
+        assertScalarMult(
+                "4b66e9d4d1b4673c5ad22691957d6af5c11b6421e0ea01d42ca4169e7918ba0d",
+                "e5210f12786811d3f4b7959d0538ae2c31dbe7106fc03c3efc4cd549c715a493",
+                "95cbde9476e8907d7aade45cb4b873f88b595a68799fa152e6f8f7647aac7957");
+    }
+
+    @Test
+    void oneIterationMatchesSection52Vector() {
+        byte[] k = new byte[X25519.KEY_LENGTH];
+        k[0] = 9;
+        byte[] u = k.clone();
+
+        k = iterate(k, u, 1);
+        assertArrayEquals(HEX.parseHex("422c8e7a6227d7bca1350b3e2bb7279f7897b87bb6854b783c60e80311ae3079"), k);
+    }
+
+    @Test
+    void thousandIterationsMatchSection52Vector() {
+        byte[] k = new byte[X25519.KEY_LENGTH];
+        k[0] = 9;
+        byte[] u = k.clone();
+
+        k = iterate(k, u, 1000);
+        assertArrayEquals(HEX.parseHex("684cf59ba83309552800ef566f2f4d3c1c3887c49360e3875f2eb94d99532c51"), k);
+    }
+
+    @Test
+    void aliceAndBobAgreeAsInSection61() {
+        byte[] alicePrivate = HEX.parseHex("77076d0a7318a57d3c16c17251b26645df4c2f87ebc0992ab177fba51db92c2a");
+        byte[] bobPrivate = HEX.parseHex("5dab087e624a8a4b79e17f8b83800ee66f3bb1292618b6fd1c2f8b27ff88e0eb");
+        byte[] alicePublic = X25519.computePublicKey(alicePrivate);
+        byte[] bobPublic = X25519.computePublicKey(bobPrivate);
+        assertArrayEquals(HEX.parseHex("8520f0098930a754748b7ddcb43ef75a0dbf3a0d26381af4eba4a98eaa9b4e6a"), alicePublic);
+        assertArrayEquals(HEX.parseHex("de9edb7d7b7dc1b4d35b61c2ece435373f8343c85b78674dadfc7e146f882b4f"), bobPublic);
+
+        byte[] shared = HEX.parseHex("4a5d9d5ba4ce2de1728e3bf480350f25e07e21c947d19e3376f09b3c1e161742");
+        assertArrayEquals(shared, X25519.computeSharedKey(bobPublic, alicePrivate));
+        assertArrayEquals(shared, X25519.computeSharedKey(alicePublic, bobPrivate));
+    }
+
+    @Test
+    void sharedKeyRejectsSmallOrderPoints() {
+        byte[] privateKey = X25519.generatePrivateKey();
+        // u = 0 and u = 1 have order dividing 4, so the shared secret is all zeros
+        byte[] zero = new byte[X25519.KEY_LENGTH];
+        byte[] one = new byte[X25519.KEY_LENGTH];
+        one[0] = 1;
+        assertThrows(IllegalArgumentException.class, () -> X25519.computeSharedKey(zero, privateKey));
+        assertThrows(IllegalArgumentException.class, () -> X25519.computeSharedKey(one, privateKey));
+    }
+
+    @Test
+    void rejectsKeysOfTheWrongLength() {
+        assertThrows(IllegalArgumentException.class, () -> X25519.scalarMult(new byte[31], new byte[32]));
+        assertThrows(IllegalArgumentException.class, () -> X25519.computePublicKey(new byte[33]));
+    }
+
+    private static void assertScalarMult(String k, String u, String expected) {
+        assertArrayEquals(HEX.parseHex(expected), X25519.scalarMult(HEX.parseHex(k), HEX.parseHex(u)));
+    }
+
+    /**
+     * The iteration of RFC 7748, section 5.2: k, u = X25519(k, u), k.
+     */
+    private static byte[] iterate(byte[] k, byte[] u, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            byte[] next = X25519.scalarMult(k, u);
+            u = k;
+            k = next;
+        }
+        return k;
+    }
+}